@@ -0,0 +1,72 @@
+package example.client.codec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request body encoding: the String.format bodies BackendClient used to build versus the typed
+ * codecs. Run with {@code mvn -Pjmh verify}; allocation per op comes from the gc profiler.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonWriterBenchmark {
+
+    private final String marketId = "527079";
+    private final long chatId = 6117624773L;
+    private final String language = "sw";
+    private final String username = "some_user";
+
+    @Benchmark
+    public byte[] premiumAdviceFormat() {
+        String langJson = (language != null && !language.isEmpty()) ? String.format(", \"language\":\"%s\"", language) : "";
+        return String.format("{\"market_id\":\"%s\", \"telegram_id\":\"%d\", \"premium\":true%s}", marketId, chatId, langJson)
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] premiumAdviceCodec() {
+        return JsonWriter.encode(new BackendRequests.PremiumAdvice(marketId, chatId, language));
+    }
+
+    @Benchmark
+    public byte[] paperTradeFormat() {
+        double shares = 50 / 0.5;
+        return String.format("{\"telegram_user_id\":%d,\"market_id\":\"%s\",\"outcome\":\"%s\",\"shares\":%.2f,\"price_per_share\":%.2f}",
+                chatId, marketId, "YES", shares, 0.5).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] paperTradeCodec() {
+        return JsonWriter.encode(new BackendRequests.PaperTrade(chatId, marketId, "YES", 50 / 0.5, 0.5));
+    }
+
+    @Benchmark
+    public byte[] upsertUserFormat() {
+        String userJson = String.format(", \"username\":\"%s\"", escape(username));
+        String langJson = String.format(", \"language\":\"%s\"", escape(language));
+        return String.format("{\"telegram_id\":\"%d\"%s%s}", chatId, userJson, langJson).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] upsertUserCodec() {
+        return JsonWriter.encode(new BackendRequests.UpsertTelegramUser(chatId, username, language));
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
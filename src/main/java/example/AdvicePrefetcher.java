@@ -0,0 +1,174 @@
+package example;
+
+import example.client.BackendClient;
+import example.market.Market;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Warms premium advice for the current trending markets in every supported language, so the
+ * advice unlocked right after a /pay can be served without waiting on the agent.
+ *
+ * Runs from the bot's background scheduler and only does work when the bot is quiet (fewer
+ * than maxUpdatesPerMinute updates since the last tick) and the rolling one-hour agent-call
+ * budget has room. Advice is requested under a dedicated warmer telegram_id; responses that
+ * come back payment-gated or unavailable are not cached. Nothing here bypasses payment:
+ * cached advice is only handed out after the user's own payment verifies.
+ */
+public class AdvicePrefetcher {
+
+    private static final String[] LANGUAGES = {"en", "sw"};
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+
+    private static final class CachedAdvice {
+        final String payload;
+        final long fetchedAt;
+
+        CachedAdvice(String payload, long fetchedAt) {
+            this.payload = payload;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    private final BackendClient backend;
+    private final long warmerTelegramId;
+    private final int marketsPerTick;
+    private final int agentCallsPerHour;
+    private final int maxUpdatesPerMinute;
+    private final long ttlMillis;
+
+    private final Map<String, CachedAdvice> cache = new ConcurrentHashMap<>();
+    private final Deque<Long> agentCalls = new ArrayDeque<>();
+    private final LongAdder updatesSinceTick = new LongAdder();
+    private long lastTickAt = System.currentTimeMillis();
+
+    public AdvicePrefetcher(BackendClient backend, long warmerTelegramId, int marketsPerTick,
+                            int agentCallsPerHour, int maxUpdatesPerMinute, long ttlMillis) {
+        this.backend = backend;
+        this.warmerTelegramId = warmerTelegramId;
+        this.marketsPerTick = marketsPerTick;
+        this.agentCallsPerHour = agentCallsPerHour;
+        this.maxUpdatesPerMinute = maxUpdatesPerMinute;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Builds a prefetcher from PREFETCH_* environment variables, or returns null when
+     * PREFETCH_TELEGRAM_ID is not set or not a number (prefetching needs an identity the backend
+     * will answer for).
+     */
+    public static AdvicePrefetcher fromEnvironment(BackendClient backend) {
+        String warmerId = System.getenv("PREFETCH_TELEGRAM_ID");
+        if (warmerId == null || warmerId.isBlank()) {
+            return null;
+        }
+        long telegramId;
+        try {
+            telegramId = Long.parseLong(warmerId.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Ignoring invalid PREFETCH_TELEGRAM_ID '" + warmerId + "'; advice prefetching disabled");
+            return null;
+        }
+        return new AdvicePrefetcher(backend,
+                telegramId,
+                envInt("PREFETCH_MARKETS", 5),
+                envInt("PREFETCH_AGENT_BUDGET_PER_HOUR", 20),
+                envInt("PREFETCH_MAX_UPDATES_PER_MINUTE", 30),
+                envInt("PREFETCH_TTL_MINUTES", 30) * 60_000L);
+    }
+
+    /** Called for every incoming update; the tick uses it to tell busy periods from quiet ones. */
+    public void recordActivity() {
+        updatesSinceTick.increment();
+    }
+
+    /** Returns warmed advice for the market and language if it is still fresh, otherwise null. */
+    public String getFresh(String marketId, String language) {
+        CachedAdvice cached = cache.get(key(marketId, language));
+        if (cached == null || System.currentTimeMillis() - cached.fetchedAt > ttlMillis) {
+            return null;
+        }
+        return cached.payload;
+    }
+
+    /** One warming pass; scheduled periodically. */
+    public synchronized void tick() {
+        long now = System.currentTimeMillis();
+        double minutes = Math.max(1.0, (now - lastTickAt) / 60_000.0);
+        double updatesPerMinute = updatesSinceTick.sumThenReset() / minutes;
+        lastTickAt = now;
+        if (updatesPerMinute > maxUpdatesPerMinute) {
+            return;
+        }
+
+        cache.values().removeIf(c -> now - c.fetchedAt > ttlMillis);
+
+        List<Market> trending;
+        try {
+            trending = Market.parseList(backend.getTrendingMarkets());
+        } catch (Exception e) {
+            return;
+        }
+
+        int warmed = 0;
+        for (Market market : trending) {
+            if (warmed >= marketsPerTick) {
+                break;
+            }
+            warmed++;
+            for (String language : LANGUAGES) {
+                if (getFresh(market.getId(), language) != null) {
+                    continue;
+                }
+                if (!takeBudget(now)) {
+                    return;
+                }
+                String payload = backend.getPremiumAdvice(market.getId(), warmerTelegramId, language);
+                if (isCacheableAdvice(payload)) {
+                    cache.put(key(market.getId(), language), new CachedAdvice(payload, System.currentTimeMillis()));
+                }
+            }
+        }
+    }
+
+    private boolean takeBudget(long now) {
+        while (!agentCalls.isEmpty() && now - agentCalls.peekFirst() > HOUR_MILLIS) {
+            agentCalls.pollFirst();
+        }
+        if (agentCalls.size() >= agentCallsPerHour) {
+            return false;
+        }
+        agentCalls.addLast(now);
+        return true;
+    }
+
+    // Only full agent analyses are worth keeping; errors and payment prompts are per-request
+    private static boolean isCacheableAdvice(String payload) {
+        String trimmed = payload == null ? "" : payload.trim();
+        return trimmed.startsWith("{")
+                && trimmed.contains("\"summary\"")
+                && !trimmed.contains("PAYMENT-REQUIRED")
+                && !trimmed.contains("\"address\"");
+    }
+
+    private static String key(String marketId, String language) {
+        return marketId + ":" + language;
+    }
+
+    private static int envInt(String name, int fallback) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+}
@@ -1,29 +1,157 @@
 package example;
 
+import example.chart.ChartCache;
+import example.chart.OddsChartRenderer;
 import example.client.BackendClient;
+import example.client.Deadline;
+import example.journal.JournalRecord;
+import example.journal.TradeJournal;
+import example.market.Market;
+import example.market.MarketSearchIndex;
+import example.market.MarketTable;
+import example.market.OddsHistoryStore;
+import example.market.SignalEngine;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.telegram.telegrambots.bots.TelegramLongPollingBot;
+import org.telegram.telegrambots.meta.api.methods.AnswerInlineQuery;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.send.SendPhoto;
+import org.telegram.telegrambots.meta.api.objects.InputFile;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.PhotoSize;
 import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.inlinequery.InlineQuery;
+import org.telegram.telegrambots.meta.api.objects.inlinequery.inputmessagecontent.InputTextMessageContent;
+import org.telegram.telegrambots.meta.api.objects.inlinequery.result.InlineQueryResult;
+import org.telegram.telegrambots.meta.api.objects.inlinequery.result.InlineQueryResultArticle;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class Bot extends TelegramLongPollingBot {
 
     private static final double DEFAULT_AUTO_TRADE_AMOUNT = 50.0;
-
-    private final BackendClient backend = new BackendClient();
+    private static final int CALLBACK_STORE_CAPACITY = 10_000;
+    private static final long CALLBACK_TTL_MILLIS = 30 * 60 * 1000L;
+    private static final long MARKET_SYNC_SECONDS = 60;
+    private static final long PREFETCH_INTERVAL_SECONDS = 120;
+    private static final int INLINE_RESULT_LIMIT = 20;
+    private static final int INLINE_CACHE_SECONDS = 30;
+    private static final long SIGNAL_WINDOW_MILLIS = 60 * 60 * 1000L;
+    private static final int SIGNAL_TOP_K = 10;
+    private static final long HISTORY_WINDOW_MILLIS = 24 * 60 * 60 * 1000L;
+    private static final int HISTORY_ROWS = 12;
+    // Total time one command may spend waiting on the backend; agent-backed commands get minutes
+    private static final long COMMAND_DEADLINE_MILLIS = 20_000;
+    private static final long TRADE_DEADLINE_MILLIS = 30_000;
+    private static final long AGENT_DEADLINE_MILLIS = 200_000;
+    // Profile sync (15s), payment verification (60s), the agent unlock (180s), then clearing the pending market
+    private static final long PAY_DEADLINE_MILLIS = 270_000;
+    private static final long DEFAULT_CHART_WINDOW_MILLIS = 6 * 60 * 60 * 1000L;
+    private static final long CHART_BUCKET_MILLIS = 5 * 60 * 1000L;
+    private static final int CHART_CACHE_CAPACITY = 256;
+    private static final DateTimeFormatter HISTORY_TIME = DateTimeFormatter.ofPattern("MMM dd HH:mm").withZone(ZoneOffset.UTC);
+
+    private final BackendClient backend;
+    private final MarketTable marketTable;
+    private final OddsHistoryStore history;
+    private final AdvicePrefetcher prefetcher;
+    private final TradeJournal journal;
     private final Map<Long, String> userLanguages = new ConcurrentHashMap<>();
     private final Map<Long, String> pendingPremiumMarkets = new ConcurrentHashMap<>();
     private final Map<Long, Double> autoTradeLimits = new ConcurrentHashMap<>();
     private final Map<Long, Boolean> autoTradeEnabled = new ConcurrentHashMap<>();
+    private final CallbackStateStore callbackStore = new CallbackStateStore(CALLBACK_STORE_CAPACITY, CALLBACK_TTL_MILLIS);
+    private final MarketSearchIndex marketIndex = new MarketSearchIndex();
+    private final SignalEngine signalEngine = new SignalEngine(SIGNAL_WINDOW_MILLIS);
+    private final OddsChartRenderer chartRenderer = new OddsChartRenderer();
+    private final ChartCache chartCache = new ChartCache(CHART_CACHE_CAPACITY);
+    // Two threads so a slow advice warm-up never delays market syncs
+    private final ScheduledExecutorService background = Executors.newScheduledThreadPool(2, r -> {
+        Thread t = new Thread(r, "bot-background");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public Bot() {
+        this(new BackendClient());
+    }
+
+    public Bot(BackendClient backend) {
+        this(backend, dataDir());
+    }
+
+    // The data dir is injectable so load runs keep their synthetic trades out of the real journal
+    public Bot(BackendClient backend, Path dataDir) {
+        this.backend = backend;
+        this.marketTable = new MarketTable(backend);
+        this.history = openHistory(dataDir);
+        this.journal = openJournal(dataDir);
+        this.prefetcher = AdvicePrefetcher.fromEnvironment(backend);
+    }
+
+    static Path dataDir() {
+        String dataDir = System.getenv("NORT_DATA_DIR");
+        return Path.of(dataDir == null || dataDir.isBlank() ? "data" : dataDir);
+    }
+
+    // History is optional: without a writable data dir the bot still runs, just without /history
+    private static OddsHistoryStore openHistory(Path dataDir) {
+        try {
+            return new OddsHistoryStore(dataDir.resolve("odds-history.bin"));
+        } catch (IOException e) {
+            System.err.println("Odds history disabled: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static TradeJournal openJournal(Path dataDir) {
+        try {
+            return new TradeJournal(dataDir.resolve("trade-journal.bin"));
+        } catch (IOException e) {
+            System.err.println("Trade journal disabled: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void onClosing() {
+        super.onClosing();
+        background.shutdownNow();
+        try {
+            if (journal != null) {
+                journal.close();
+            }
+            if (history != null) {
+                history.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to close local stores: " + e.getMessage());
+        }
+    }
+
+    /** Starts periodic jobs (market replica sync, advice warming). Call once after the bot is registered. */
+    public void startBackgroundTasks() {
+        background.scheduleWithFixedDelay(this::syncMarkets, 0, MARKET_SYNC_SECONDS, TimeUnit.SECONDS);
+        if (prefetcher != null) {
+            background.scheduleWithFixedDelay(this::prefetchAdvice, PREFETCH_INTERVAL_SECONDS, PREFETCH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+    }
 
     @Override
     public String getBotUsername() {
@@ -40,12 +168,43 @@ public class Bot extends TelegramLongPollingBot {
     }
 
     @Override
+    @SuppressWarnings("try") // the deadline scope is only opened and closed, never referenced
     public void onUpdateReceived(Update update) {
-        if (update.hasMessage() && update.getMessage().hasText()) {
-            String username = update.getMessage().getFrom() != null ? update.getMessage().getFrom().getUserName() : null;
-            handleIncomingMessage(update.getMessage().getChatId(), update.getMessage().getText().trim(), username);
-        } else if (update.hasCallbackQuery()) {
-            handleCallback(update);
+        if (prefetcher != null) {
+            prefetcher.recordActivity();
+        }
+        // Every backend call made while handling this update shares one deadline
+        try (Deadline.Scope ignored = Deadline.start(deadlineFor(update))) {
+            if (update.hasMessage() && update.getMessage().hasText()) {
+                String username = update.getMessage().getFrom() != null ? update.getMessage().getFrom().getUserName() : null;
+                handleIncomingMessage(update.getMessage().getChatId(), update.getMessage().getText().trim(), username);
+            } else if (update.hasCallbackQuery()) {
+                handleCallback(update);
+            } else if (update.hasInlineQuery()) {
+                handleInlineQuery(update.getInlineQuery());
+            }
+        }
+    }
+
+    private static long deadlineFor(Update update) {
+        if (update.hasCallbackQuery()) {
+            return TRADE_DEADLINE_MILLIS;
+        }
+        if (!update.hasMessage() || !update.getMessage().hasText()) {
+            return COMMAND_DEADLINE_MILLIS;
+        }
+        String text = update.getMessage().getText().trim();
+        int space = text.indexOf(' ');
+        switch ((space < 0 ? text : text.substring(0, space)).toLowerCase()) {
+            case "/advice":
+            case "/premium_advice":
+                return AGENT_DEADLINE_MILLIS;
+            case "/pay":
+                return PAY_DEADLINE_MILLIS;
+            case "/papertrade":
+                return TRADE_DEADLINE_MILLIS;
+            default:
+                return COMMAND_DEADLINE_MILLIS;
         }
     }
 
@@ -104,13 +263,21 @@ public class Bot extends TelegramLongPollingBot {
                 break;
 
             case "/signals":
-                handleSignals(chatId);
+                handleSignals(chatId, commandParts);
                 break;
 
             case "/papertrade":
                 handlePaperTrade(chatId, commandParts);
                 break;
 
+            case "/history":
+                handleHistory(chatId, commandParts);
+                break;
+
+            case "/chart":
+                handleChart(chatId, commandParts);
+                break;
+
             default:
                 sendDefaultHelp(chatId);
         }
@@ -171,12 +338,16 @@ public class Bot extends TelegramLongPollingBot {
             message.append("TOP TRENDING MARKETS\n");
             message.append("--------------------------------\n\n");
 
+            long now = System.currentTimeMillis();
             for (int i = 0; i < markets.length(); i++) {
                 JSONObject market = markets.getJSONObject(i);
                 String marketId = market.optString("id", "?");
                 String question = market.optString("question", "Unknown");
                 double volume = market.optDouble("volume", 0);
                 double odds = market.optDouble("current_odds", 0);
+                if (market.has("volume") && market.has("current_odds")) {
+                    recordHistory(marketId, now, odds, volume);
+                }
                 String expires = market.optString("expires_at", "?").split(" ")[0];
                 String oddsStr = odds > 0 ? String.format("%.0f%%", odds * 100) : "-";
 
@@ -185,7 +356,7 @@ public class Bot extends TelegramLongPollingBot {
                 message.append(String.format("   Volume: $%,.0f | Odds: %s | Expires: %s%n%n", volume, oddsStr, expires));
             }
 
-            message.append("Use /advice <id> for premium analysis.");
+            message.append("Use /advice <id> for premium analysis or /chart <id> for an odds chart.");
             sendText(chatId, message.toString());
         } catch (Exception e) {
             sendText(chatId, "Unable to retrieve trending markets at this time.");
@@ -241,9 +412,14 @@ public class Bot extends TelegramLongPollingBot {
 
         try {
             JSONObject verifyJson = new JSONObject(verifyResult);
-            if (verifyJson.optBoolean("success") || verifyJson.optBoolean("verified")) {
+            boolean verified = verifyJson.optBoolean("success") || verifyJson.optBoolean("verified");
+            journal(JournalRecord.payment(verified, chatId, marketId, txHash, verifyResult));
+            if (verified) {
                 sendText(chatId, "Payment verified. Unlocking premium advice...");
-                String unlocked = backend.getPremiumAdvice(marketId, chatId, lang);
+                String unlocked = prefetcher != null ? prefetcher.getFresh(marketId, lang) : null;
+                if (unlocked == null) {
+                    unlocked = backend.getPremiumAdvice(marketId, chatId, lang);
+                }
 
                 if (looksLikePaymentRequired(unlocked)) {
                     sendText(chatId, "Payment verification succeeded, but premium advice is still locked. Please try /advice " + marketId + " again.");
@@ -280,7 +456,18 @@ public class Bot extends TelegramLongPollingBot {
         sendText(chatId, "LIVE MARKETS\n--------------------------------\n\n" + rawMarkets);
     }
 
-    private void handleSignals(long chatId) {
+    private void handleSignals(long chatId, String[] commandParts) {
+        String category = commandParts.length > 1 ? commandParts[1].toLowerCase() : null;
+
+        // Served from the local engine once it has seen market movement; the backend is the cold-start fallback
+        if (signalEngine.isWarm()) {
+            List<SignalEngine.Signal> local = signalEngine.top(SIGNAL_TOP_K, category);
+            if (!local.isEmpty() || category != null) {
+                sendLocalSignals(chatId, local, category);
+                return;
+            }
+        }
+
         sendText(chatId, "Analyzing market momentum...");
         String signalsRaw = backend.getSignals();
         try {
@@ -294,9 +481,14 @@ public class Bot extends TelegramLongPollingBot {
             }
 
             StringBuilder signals = new StringBuilder();
-            signals.append("TOP MARKET SIGNALS\n");
-            signals.append("--------------------------------\n\n");
+            signals.append("TOP MARKET SIGNALS");
+            if (category != null) {
+                signals.append(" (").append(category.toUpperCase()).append(")");
+            }
+            signals.append("\n--------------------------------\n\n");
 
+            long now = System.currentTimeMillis();
+            int shown = 0;
             for (int i = 0; i < signalList.length(); i++) {
                 JSONObject signal = signalList.getJSONObject(i);
                 String marketId = signal.optString("market_id", "?");
@@ -305,15 +497,19 @@ public class Bot extends TelegramLongPollingBot {
                 String reason = signal.optString("reason", "");
                 double volume = signal.optDouble("volume", 0);
                 double odds = signal.optDouble("current_odds", 0);
-                String oddsStr = odds > 0 ? String.format("%.0f%%", odds * 100) : "-";
-                int scorePct = (int) Math.round(score * 100);
-
-                signals.append(String.format("%d. %s%n", i + 1, question));
-                signals.append(String.format("   ID: %s | Score: %d%%%n", marketId, scorePct));
-                signals.append(String.format("   Volume: $%,.0f | Odds: %s%n", volume, oddsStr));
-                signals.append(String.format("   Note: %s%n%n", reason));
+                if (signal.has("volume") && signal.has("current_odds")) {
+                    recordHistory(marketId, now, odds, volume);
+                }
+                if (category != null && !category.equalsIgnoreCase(signalCategory(signal, marketId))) {
+                    continue;
+                }
+                appendSignal(signals, ++shown, marketId, question, score, volume, odds, reason);
             }
 
+            if (category != null && shown == 0) {
+                sendText(chatId, "No signals for category '" + category + "' yet. Momentum data is still warming up, try again in a few minutes.");
+                return;
+            }
             signals.append("Use /advice <id> to get a full AI analysis.");
             sendText(chatId, signals.toString());
         } catch (Exception e) {
@@ -321,6 +517,202 @@ public class Bot extends TelegramLongPollingBot {
         }
     }
 
+    // Backend signal rows may omit the category; fall back to the synced market table
+    private String signalCategory(JSONObject signal, String marketId) {
+        String category = signal.optString("category", "");
+        if (category.isEmpty()) {
+            Market market = marketTable.get(marketId);
+            category = market != null ? market.getCategory() : "";
+        }
+        return category;
+    }
+
+    private void sendLocalSignals(long chatId, List<SignalEngine.Signal> local, String category) {
+        if (local.isEmpty()) {
+            sendText(chatId, "No momentum signals for category '" + category + "' right now.");
+            return;
+        }
+
+        StringBuilder signals = new StringBuilder();
+        signals.append("TOP MARKET SIGNALS");
+        if (category != null) {
+            signals.append(" (").append(category.toUpperCase()).append(")");
+        }
+        signals.append("\n--------------------------------\n\n");
+
+        for (int i = 0; i < local.size(); i++) {
+            SignalEngine.Signal signal = local.get(i);
+            Market market = signal.getMarket();
+            String reason = String.format("Volume +%.0f%% | Odds %+.0f pts over the last %d min",
+                    signal.getVolumeGrowth() * 100, signal.getOddsMove() * 100, SIGNAL_WINDOW_MILLIS / 60_000);
+            appendSignal(signals, i + 1, market.getId(), market.getQuestion(), signal.getScore(),
+                    market.getVolume(), market.getCurrentOdds(), reason);
+        }
+
+        signals.append("Use /advice <id> to get a full AI analysis.");
+        sendText(chatId, signals.toString());
+    }
+
+    private void appendSignal(StringBuilder signals, int rank, String marketId, String question,
+                              double score, double volume, double odds, String reason) {
+        String oddsStr = odds > 0 ? String.format("%.0f%%", odds * 100) : "-";
+        int scorePct = (int) Math.round(score * 100);
+
+        signals.append(String.format("%d. %s%n", rank, question));
+        signals.append(String.format("   ID: %s | Score: %d%%%n", marketId, scorePct));
+        signals.append(String.format("   Volume: $%,.0f | Odds: %s%n", volume, oddsStr));
+        signals.append(String.format("   Note: %s%n%n", reason));
+    }
+
+    private void handleHistory(long chatId, String[] commandParts) {
+        if (commandParts.length < 2) {
+            sendText(chatId, "Usage: /history <market_id>\nExample: /history 527079");
+            return;
+        }
+        if (history == null) {
+            sendText(chatId, "Market history is unavailable right now.");
+            return;
+        }
+
+        String marketId = commandParts[1];
+        long[] times = new long[OddsHistoryStore.RING_SIZE];
+        double[] odds = new double[OddsHistoryStore.RING_SIZE];
+        double[] volumes = new double[OddsHistoryStore.RING_SIZE];
+        int count = history.read(marketId, System.currentTimeMillis() - HISTORY_WINDOW_MILLIS, times, odds, volumes);
+        if (count == 0) {
+            sendText(chatId, "No history recorded for market " + marketId + " in the last 24 hours.");
+            return;
+        }
+
+        StringBuilder message = new StringBuilder();
+        Market market = marketTable.get(marketId);
+        message.append("MARKET HISTORY: ").append(marketId).append("\n");
+        if (market != null) {
+            message.append(market.getQuestion()).append("\n");
+        }
+        message.append("--------------------------------\n\n");
+
+        // Evenly spaced sample of the window, always including the newest point
+        int rows = Math.min(HISTORY_ROWS, count);
+        for (int r = 0; r < rows; r++) {
+            int i = rows == 1 ? count - 1 : (int) Math.round((double) r * (count - 1) / (rows - 1));
+            message.append(String.format("%s UTC | Odds: %.0f%% | Volume: $%,.0f%n",
+                    HISTORY_TIME.format(Instant.ofEpochMilli(times[i])), odds[i] * 100, volumes[i]));
+        }
+
+        double oddsChange = (odds[count - 1] - odds[0]) * 100;
+        double volumeChange = volumes[count - 1] - volumes[0];
+        message.append(String.format("%nOdds %+.0f pts | Volume %+,.0f since %s UTC",
+                oddsChange, volumeChange, HISTORY_TIME.format(Instant.ofEpochMilli(times[0]))));
+        sendText(chatId, message.toString());
+    }
+
+    private enum ChartOutcome { SENT, NO_HISTORY, FAILED }
+
+    private void handleChart(long chatId, String[] commandParts) {
+        if (commandParts.length < 2) {
+            sendText(chatId, "Usage: /chart <market_id> [1h|6h|24h]\nExample: /chart 527079 24h");
+            return;
+        }
+
+        long windowMillis = DEFAULT_CHART_WINDOW_MILLIS;
+        if (commandParts.length > 2) {
+            switch (commandParts[2].toLowerCase()) {
+                case "1h":  windowMillis = 60 * 60 * 1000L; break;
+                case "6h":  windowMillis = 6 * 60 * 60 * 1000L; break;
+                case "24h": windowMillis = 24 * 60 * 60 * 1000L; break;
+                default:
+                    sendText(chatId, "Unsupported window. Use 1h, 6h or 24h.");
+                    return;
+            }
+        }
+
+        switch (sendChart(chatId, commandParts[1], windowMillis)) {
+            case NO_HISTORY:
+                sendText(chatId, "Not enough history to chart market " + commandParts[1] + " yet. Try again in a few minutes.");
+                break;
+            case FAILED:
+                sendText(chatId, "Couldn't send the chart for market " + commandParts[1] + " right now. Please try again.");
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Sends an odds/volume chart, reusing the Telegram file_id or cached PNG for the current
+     * 5-minute bucket when available.
+     */
+    private ChartOutcome sendChart(long chatId, String marketId, long windowMillis) {
+        if (history == null) {
+            return ChartOutcome.NO_HISTORY;
+        }
+
+        long now = System.currentTimeMillis();
+        String key = ChartCache.key(marketId, windowMillis, CHART_BUCKET_MILLIS, now);
+        Market market = marketTable.get(marketId);
+        String caption = (market != null ? market.getQuestion() + "\n" : "") + "Market " + marketId
+                + " | last " + (windowMillis / 3_600_000) + "h";
+
+        String fileId = chartCache.getFileId(key);
+        if (fileId != null && sendPhoto(chatId, new InputFile(fileId), caption, key)) {
+            return ChartOutcome.SENT;
+        }
+
+        byte[] png = chartCache.getImage(key);
+        if (png == null) {
+            long[] times = new long[OddsHistoryStore.RING_SIZE];
+            double[] odds = new double[OddsHistoryStore.RING_SIZE];
+            double[] volumes = new double[OddsHistoryStore.RING_SIZE];
+            int count = history.read(marketId, now - windowMillis, times, odds, volumes);
+            if (count < 2) {
+                return ChartOutcome.NO_HISTORY;
+            }
+            try {
+                png = chartRenderer.render(market != null ? market.getQuestion() : "Market " + marketId, times, odds, volumes, count);
+            } catch (IOException e) {
+                System.err.println("Failed to render chart: " + e.getMessage());
+                return ChartOutcome.FAILED;
+            }
+            chartCache.putImage(key, png);
+        }
+
+        boolean sent = sendPhoto(chatId, new InputFile(new ByteArrayInputStream(png), "chart-" + marketId + ".png"), caption, key);
+        return sent ? ChartOutcome.SENT : ChartOutcome.FAILED;
+    }
+
+    private boolean sendPhoto(long chatId, InputFile photo, String caption, String cacheKey) {
+        SendPhoto sp = SendPhoto.builder()
+                .chatId(String.valueOf(chatId))
+                .photo(photo)
+                .caption(caption)
+                .build();
+        try {
+            Message sent = executePhoto(sp);
+            // Remember the largest size's file_id so later sends skip the upload
+            if (sent != null && sent.getPhoto() != null && !sent.getPhoto().isEmpty()) {
+                PhotoSize largest = sent.getPhoto().get(sent.getPhoto().size() - 1);
+                chartCache.putFileId(cacheKey, largest.getFileId());
+            }
+            return true;
+        } catch (TelegramApiException e) {
+            System.err.println("Failed to send chart: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // DefaultAbsSender.execute(SendPhoto) is final; this seam lets the load-test sink intercept uploads
+    protected Message executePhoto(SendPhoto sendPhoto) throws TelegramApiException {
+        return execute(sendPhoto);
+    }
+
+    // Rows without real odds would chart as a crash to zero; the renderer already shows them as "-"
+    private void recordHistory(String marketId, long timeMillis, double odds, double volume) {
+        if (history != null && odds > 0) {
+            history.append(marketId, timeMillis, odds, volume);
+        }
+    }
+
     private void handlePaperTrade(long chatId, String[] commandParts) {
         if (commandParts.length < 4) {
             sendText(chatId, "Usage: /papertrade <market_id> <yes/no> <amount>\nExample: /papertrade 527079 yes 50");
@@ -330,12 +722,73 @@ public class Bot extends TelegramLongPollingBot {
         try {
             double amount = Double.parseDouble(commandParts[3]);
             String result = backend.placePaperTrade(chatId, commandParts[1], commandParts[2], amount);
+            journal(JournalRecord.trade(false, isTradeAccepted(result), chatId, commandParts[1], commandParts[2].toUpperCase(), amount, result));
             sendText(chatId, "PAPER TRADE RESULT\n--------------------------------\n" + result);
         } catch (NumberFormatException e) {
             sendText(chatId, "Invalid amount. Please use numbers only (e.g. 50, 100.50).");
         }
     }
 
+    private void handleInlineQuery(InlineQuery inlineQuery) {
+        List<InlineQueryResult> results = new ArrayList<>();
+        for (Market market : marketIndex.search(inlineQuery.getQuery(), INLINE_RESULT_LIMIT)) {
+            String oddsStr = market.getCurrentOdds() > 0 ? String.format("%.0f%%", market.getCurrentOdds() * 100) : "-";
+            results.add(InlineQueryResultArticle.builder()
+                    .id(market.getId())
+                    .title(market.getQuestion())
+                    .description(String.format("ID: %s | Odds: %s | Volume: $%,.0f", market.getId(), oddsStr, market.getVolume()))
+                    .inputMessageContent(InputTextMessageContent.builder()
+                            .messageText("/advice " + market.getId())
+                            .build())
+                    .build());
+        }
+
+        // Results depend only on the query text, so Telegram may share its cache across users
+        AnswerInlineQuery answer = AnswerInlineQuery.builder()
+                .inlineQueryId(inlineQuery.getId())
+                .results(results)
+                .cacheTime(INLINE_CACHE_SECONDS)
+                .isPersonal(false)
+                .build();
+        try {
+            execute(answer);
+        } catch (TelegramApiException e) {
+            System.err.println("Failed to answer inline query: " + e.getMessage());
+        }
+    }
+
+    private void prefetchAdvice() {
+        try {
+            prefetcher.tick();
+        } catch (Exception e) {
+            System.err.println("Advice prefetch failed: " + e.getMessage());
+        }
+    }
+
+    private void syncMarkets() {
+        try {
+            MarketTable.Change change = marketTable.sync();
+            long now = System.currentTimeMillis();
+            signalEngine.onSnapshot(now, change.getChanged(), change.getRemoved());
+            // Every market is observed each sync, changed or not; the store keeps one point per 3-minute bucket
+            for (Market market : marketTable.all()) {
+                recordHistory(market.getId(), now, market.getCurrentOdds(), market.getVolume());
+            }
+            if (history != null) {
+                history.flush();
+            }
+            if (change.isEmpty()) {
+                return;
+            }
+            marketIndex.upsertAll(change.getChanged());
+            for (String marketId : change.getRemoved()) {
+                marketIndex.remove(marketId);
+            }
+        } catch (Exception e) {
+            System.err.println("Market sync failed: " + e.getMessage());
+        }
+    }
+
     private void handleCallback(Update update) {
         String callData = update.getCallbackQuery().getData();
         long chatId = update.getCallbackQuery().getMessage().getChatId();
@@ -350,16 +803,23 @@ public class Bot extends TelegramLongPollingBot {
             return;
         }
 
-        if (callData.startsWith("exe_yes_")) {
-            handleExecuteCallback(chatId, callData);
+        if (callData.startsWith("exe:")) {
+            handleExecuteCallback(chatId, callData.substring(4));
             return;
         }
 
-        if (callData.equals("exe_no")) {
+        if (callData.startsWith("exn:")) {
+            callbackStore.consume(callData.substring(4), chatId);
             sendText(chatId, "Trade auto-execution cancelled.");
             return;
         }
 
+        // Buttons rendered before the token scheme carried the trade inline; they can no longer be trusted
+        if (callData.startsWith("exe_yes_") || callData.equals("exe_no")) {
+            sendText(chatId, "This trade button has expired. Run /advice <market_id> again for a fresh recommendation.");
+            return;
+        }
+
         switch (callData) {
             case "btn_trending":
                 handleTrending(chatId);
@@ -375,20 +835,21 @@ public class Bot extends TelegramLongPollingBot {
         }
     }
 
-    private void handleExecuteCallback(long chatId, String callData) {
-        String[] parts = callData.split("_");
-        if (parts.length < 4) {
-            sendText(chatId, "Unable to parse trade execution request.");
+    private void handleExecuteCallback(long chatId, String token) {
+        // Checked before consuming so the button still works once the user enables auto-trade
+        if (!isAutoTradeEnabled(chatId)) {
+            sendText(chatId, "Auto-trade is disabled. Enable it first with /enable_autotrade.");
             return;
         }
 
-        if (!isAutoTradeEnabled(chatId)) {
-            sendText(chatId, "Auto-trade is disabled. Enable it first with /enable_autotrade.");
+        CallbackStateStore.TradeContext trade = callbackStore.consume(token, chatId);
+        if (trade == null) {
+            sendText(chatId, "This trade button has expired or was already used. Run /advice <market_id> again for a fresh recommendation.");
             return;
         }
 
-        String marketId = parts[2];
-        String side = parts[3];
+        String marketId = trade.getMarketId();
+        String side = trade.getSide();
         double limit = getAutoTradeLimit(chatId);
         double amount = Math.min(DEFAULT_AUTO_TRADE_AMOUNT, limit);
 
@@ -397,11 +858,19 @@ public class Bot extends TelegramLongPollingBot {
             return;
         }
 
-        sendText(chatId, "Executing trade... Placing $" + String.format("%.2f", amount) + " on " + side + " for market " + marketId);
+        sendText(chatId, "Executing trade... Placing $" + String.format("%.2f", amount) + " on " + side + " for market " + marketId
+                + " (plan: " + trade.getPlan() + ", confidence " + String.format("%.0f%%", trade.getConfidence() * 100) + ")");
         String result = backend.placePaperTrade(chatId, marketId, side, amount);
+        journal(JournalRecord.trade(true, isTradeAccepted(result), chatId, marketId, side, amount, result));
         sendText(chatId, "Trade Result:\n" + result);
     }
 
+    private void journal(JournalRecord record) {
+        if (journal != null) {
+            journal.append(record);
+        }
+    }
+
     private void sendPaymentInstructions(long chatId, String marketId, String premiumResponse) {
         try {
             JSONObject paymentJson = new JSONObject(premiumResponse);
@@ -453,10 +922,12 @@ public class Bot extends TelegramLongPollingBot {
 
             if (!plan.toUpperCase().contains("WAIT")) {
                 String side = deriveTradeSide(plan);
-                sendAdviceWithExecuteOption(chatId, message.toString(), marketId, side);
+                String token = callbackStore.put(new CallbackStateStore.TradeContext(chatId, marketId, side, plan, confidence));
+                sendAdviceWithExecuteOption(chatId, message.toString(), token);
             } else {
                 sendText(chatId, message.toString());
             }
+            sendChart(chatId, marketId, DEFAULT_CHART_WINDOW_MILLIS);
         } catch (Exception e) {
             sendText(chatId, "Unable to parse premium advice.\nRaw preview: " + preview(premiumResponse));
         }
@@ -490,6 +961,17 @@ public class Bot extends TelegramLongPollingBot {
         return "YES";
     }
 
+    // Accepted trades come back as a JSON object; transport failures, "Error <code>" bodies and
+    // {"error"/"detail": ...} rejections are journaled as failed so they don't count as volume
+    private static boolean isTradeAccepted(String result) {
+        try {
+            JSONObject json = new JSONObject(result);
+            return !json.has("error") && !json.has("detail") && json.optBoolean("success", true);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
     private boolean isBackendUnavailable(String response) {
         return response.contains("503")
                 || response.startsWith("Connection failed")
@@ -636,7 +1118,7 @@ public class Bot extends TelegramLongPollingBot {
         }
     }
 
-    public void sendAdviceWithExecuteOption(long chatId, String text, String marketId, String side) {
+    public void sendAdviceWithExecuteOption(long chatId, String text, String callbackToken) {
         if (text.length() > 4096) {
             text = text.substring(0, 4090) + "\n[...]";
         }
@@ -650,8 +1132,8 @@ public class Bot extends TelegramLongPollingBot {
         List<List<InlineKeyboardButton>> rowsInline = new ArrayList<>();
         List<InlineKeyboardButton> row1 = new ArrayList<>();
 
-        row1.add(InlineKeyboardButton.builder().text("Yes").callbackData("exe_yes_" + marketId + "_" + side).build());
-        row1.add(InlineKeyboardButton.builder().text("No").callbackData("exe_no").build());
+        row1.add(InlineKeyboardButton.builder().text("Yes").callbackData("exe:" + callbackToken).build());
+        row1.add(InlineKeyboardButton.builder().text("No").callbackData("exn:" + callbackToken).build());
 
         rowsInline.add(row1);
         markupInline.setKeyboard(rowsInline);
@@ -686,11 +1168,14 @@ public class Bot extends TelegramLongPollingBot {
                 "/advice <id> - Premium AI analysis for a market\n" +
                 "/premium_advice <id> - Alias for /advice\n" +
                 "/pay <tx_hash> - Submit x402 payment proof\n" +
-                "/signals - Algorithmic trading signals\n" +
+                "/signals [category] - Algorithmic trading signals\n" +
                 "/markets - Live market listings\n" +
                 "/portfolio - Wallet or paper summary\n" +
                 "/papertrade <id> yes/no <amount> - Simulate trades\n" +
-                "/lang - Set your preferred language (en/sw)\n\n" +
+                "/history <id> - Recent odds and volume movement\n" +
+                "/chart <id> [1h|6h|24h] - Odds and volume chart\n" +
+                "/lang - Set your preferred language (en/sw)\n" +
+                "@Nort67Bot <text> - Search markets from any chat\n\n" +
                 "Settings:\n" +
                 "/enable_autotrade - Enable automated execution\n" +
                 "/disable_autotrade - Disable automated execution\n" +
@@ -0,0 +1,126 @@
+package example;
+
+import java.security.SecureRandom;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Server-side state for inline keyboard buttons.
+ *
+ * Instead of packing market IDs and trade sides into callback_data (64-byte limit, breaks on
+ * IDs with underscores), the bot stores the full advice context here and puts only a short
+ * random token on the button. Lookups are O(1); entries are single-use, expire after a TTL,
+ * and the oldest entries are evicted once the store is full. In-memory only, like UserSession.
+ */
+public class CallbackStateStore {
+
+    private static final char[] TOKEN_ALPHABET =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+    private static final int TOKEN_LENGTH = 12;
+
+    /** Everything the execute button needs, captured when the advice was rendered. */
+    public static final class TradeContext {
+        private final long chatId;
+        private final String marketId;
+        private final String side;
+        private final String plan;
+        private final double confidence;
+
+        public TradeContext(long chatId, String marketId, String side, String plan, double confidence) {
+            this.chatId = chatId;
+            this.marketId = marketId;
+            this.side = side;
+            this.plan = plan;
+            this.confidence = confidence;
+        }
+
+        public long   getChatId()     { return chatId; }
+        public String getMarketId()   { return marketId; }
+        public String getSide()       { return side; }
+        public String getPlan()       { return plan; }
+        public double getConfidence() { return confidence; }
+    }
+
+    private static final class Entry {
+        final TradeContext context;
+        final long expiresAtMillis;
+
+        Entry(TradeContext context, long expiresAtMillis) {
+            this.context = context;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    private final SecureRandom random = new SecureRandom();
+    private final int capacity;
+    private final long ttlMillis;
+    // Insertion order doubles as expiry order because every entry gets the same TTL
+    private final LinkedHashMap<String, Entry> entries;
+
+    public CallbackStateStore(int capacity, long ttlMillis) {
+        this.capacity = capacity;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(Math.min(capacity, 1024), 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > CallbackStateStore.this.capacity;
+            }
+        };
+    }
+
+    /** Stores the context and returns the token to embed in callback_data. */
+    public synchronized String put(TradeContext context) {
+        long now = System.currentTimeMillis();
+        purgeExpired(now);
+
+        String token;
+        do {
+            token = newToken();
+        } while (entries.containsKey(token));
+
+        entries.put(token, new Entry(context, now + ttlMillis));
+        return token;
+    }
+
+    /**
+     * Removes and returns the context for a token, or null if the token is unknown, expired,
+     * already used, or belongs to a different chat. Removal is what makes replayed taps fail.
+     */
+    public synchronized TradeContext consume(String token, long chatId) {
+        Entry entry = entries.get(token);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.context.getChatId() != chatId) {
+            return null;
+        }
+        entries.remove(token);
+        if (entry.expiresAtMillis < System.currentTimeMillis()) {
+            return null;
+        }
+        return entry.context;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void purgeExpired(long now) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().expiresAtMillis >= now) {
+                break;
+            }
+            it.remove();
+        }
+    }
+
+    private String newToken() {
+        char[] token = new char[TOKEN_LENGTH];
+        for (int i = 0; i < TOKEN_LENGTH; i++) {
+            token[i] = TOKEN_ALPHABET[random.nextInt(TOKEN_ALPHABET.length)];
+        }
+        return new String(token);
+    }
+}
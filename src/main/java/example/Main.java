@@ -1,15 +1,24 @@
 package example;
 
-import org.telegram.telegrambots.meta.TelegramBotsApi;
+import example.updates.UpdateInbox;
+import example.updates.UpdateReceiver;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
-import org.telegram.telegrambots.updatesreceivers.DefaultBotSession;
+
+import java.io.IOException;
 
 public class Main {
     public static void main(String[] args) {
         try {
-            TelegramBotsApi botsApi = new TelegramBotsApi(DefaultBotSession.class);
             Bot bot = new Bot();  // Your Bot class MUST extend TelegramLongPollingBot
-            botsApi.registerBot(bot);
+            // Our own receiver instead of DefaultBotSession: batched, parallel, fetched updates persisted in the data dir
+            UpdateReceiver receiver = new UpdateReceiver(bot, new UpdateInbox(Bot.dataDir()), updateWorkers());
+            receiver.start();
+            bot.startBackgroundTasks();
+            // Finishes the in-flight update batch, then flushes the trade journal and odds history on Ctrl+C
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                receiver.close();
+                bot.onClosing();
+            }, "bot-shutdown"));
 
             // Send welcome message
             bot.sendText(6117624773L, "Hello there and welcome to Nort! Your one stop shop for all your Polymarket advice needs");
@@ -18,8 +27,17 @@ public class Main {
             System.out.println("Bot started! Press Ctrl+C to stop.");
             Thread.currentThread().join();  // Prevents immediate exit
 
-        } catch (TelegramApiException | InterruptedException e) {
+        } catch (TelegramApiException | IOException | InterruptedException e) {
             e.printStackTrace();
         }
     }
+
+    private static int updateWorkers() {
+        String value = System.getenv("UPDATE_WORKERS");
+        try {
+            return value == null || value.isBlank() ? 16 : Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return 16;
+        }
+    }
 }
@@ -0,0 +1,40 @@
+package example.chart;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU caches for rendered charts, keyed by (market, window, time bucket).
+ *
+ * Rendered PNG bytes are kept so repeat requests in the same bucket skip Java2D, and the
+ * Telegram file_id from the first upload is kept so later sends reference the already-uploaded
+ * photo instead of re-uploading it. A new bucket means a new key, so stale charts simply age out.
+ */
+public class ChartCache {
+
+    private final Map<String, byte[]> images;
+    private final Map<String, String> fileIds;
+
+    public ChartCache(int capacity) {
+        this.images = lru(capacity);
+        this.fileIds = lru(capacity);
+    }
+
+    public static String key(String marketId, long windowMillis, long bucketMillis, long now) {
+        return marketId + ":" + windowMillis + ":" + (now / bucketMillis);
+    }
+
+    public synchronized byte[] getImage(String key)            { return images.get(key); }
+    public synchronized void putImage(String key, byte[] png)  { images.put(key, png); }
+    public synchronized String getFileId(String key)           { return fileIds.get(key); }
+    public synchronized void putFileId(String key, String id)  { fileIds.put(key, id); }
+
+    private static <V> Map<String, V> lru(int capacity) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+}
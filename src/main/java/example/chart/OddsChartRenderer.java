@@ -0,0 +1,123 @@
+package example.chart;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Renders an odds line over volume bars as a PNG, headlessly with Java2D.
+ *
+ * Odds use the left axis (0–100%); volume is scaled to the lower third of the plot so it reads
+ * as context rather than competing with the odds line.
+ */
+public class OddsChartRenderer {
+
+    static {
+        // Must be set before any AWT class initializes; the bot never has a display
+        if (System.getProperty("java.awt.headless") == null) {
+            System.setProperty("java.awt.headless", "true");
+        }
+    }
+
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 450;
+    private static final int LEFT = 60;
+    private static final int RIGHT = 20;
+    private static final int TOP = 50;
+    private static final int BOTTOM = 40;
+
+    private static final Color BACKGROUND = new Color(0x11, 0x16, 0x1d);
+    private static final Color GRID = new Color(0x2a, 0x31, 0x3c);
+    private static final Color TEXT = new Color(0xc9, 0xd1, 0xd9);
+    private static final Color ODDS = new Color(0x3f, 0xb9, 0x50);
+    private static final Color VOLUME = new Color(0x58, 0xa6, 0xff, 90);
+    private static final DateTimeFormatter AXIS_TIME = DateTimeFormatter.ofPattern("MMM dd HH:mm").withZone(ZoneOffset.UTC);
+
+    /** Renders {@code count} chronological points; needs at least two. */
+    public byte[] render(String title, long[] times, double[] odds, double[] volumes, int count) throws IOException {
+        if (count < 2) {
+            throw new IllegalArgumentException("Need at least two points to draw a chart");
+        }
+
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setColor(BACKGROUND);
+            g.fillRect(0, 0, WIDTH, HEIGHT);
+
+            int plotW = WIDTH - LEFT - RIGHT;
+            int plotH = HEIGHT - TOP - BOTTOM;
+            long t0 = times[0];
+            long span = Math.max(1, times[count - 1] - t0);
+
+            g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 16));
+            g.setColor(TEXT);
+            g.drawString(truncate(title, 80), LEFT, 30);
+
+            // Odds gridlines every 25%
+            g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 12));
+            for (int pct = 0; pct <= 100; pct += 25) {
+                int y = TOP + plotH - pct * plotH / 100;
+                g.setColor(GRID);
+                g.drawLine(LEFT, y, LEFT + plotW, y);
+                g.setColor(TEXT);
+                g.drawString(pct + "%", 15, y + 4);
+            }
+
+            double maxVolume = 0;
+            for (int i = 0; i < count; i++) {
+                maxVolume = Math.max(maxVolume, volumes[i]);
+            }
+            if (maxVolume > 0) {
+                g.setColor(VOLUME);
+                int barW = Math.max(1, plotW / count - 1);
+                for (int i = 0; i < count; i++) {
+                    int x = LEFT + (int) ((times[i] - t0) * plotW / span);
+                    int h = (int) (volumes[i] / maxVolume * plotH / 3);
+                    g.fillRect(x - barW / 2, TOP + plotH - h, barW, h);
+                }
+            }
+
+            Path2D.Double line = new Path2D.Double();
+            for (int i = 0; i < count; i++) {
+                double x = LEFT + (double) (times[i] - t0) * plotW / span;
+                double y = TOP + plotH - Math.max(0, Math.min(1, odds[i])) * plotH;
+                if (i == 0) {
+                    line.moveTo(x, y);
+                } else {
+                    line.lineTo(x, y);
+                }
+            }
+            g.setColor(ODDS);
+            g.setStroke(new BasicStroke(2.5f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+            g.draw(line);
+
+            g.setColor(TEXT);
+            g.drawString(AXIS_TIME.format(Instant.ofEpochMilli(times[0])) + " UTC", LEFT, HEIGHT - 15);
+            String end = AXIS_TIME.format(Instant.ofEpochMilli(times[count - 1])) + " UTC";
+            g.drawString(end, LEFT + plotW - g.getFontMetrics().stringWidth(end), HEIGHT - 15);
+        } finally {
+            g.dispose();
+        }
+
+        ByteArrayOutputStream png = new ByteArrayOutputStream(64 * 1024);
+        ImageIO.write(image, "png", png);
+        return png.toByteArray();
+    }
+
+    private static String truncate(String text, int max) {
+        return text.length() <= max ? text : text.substring(0, max - 3) + "...";
+    }
+}
@@ -1,151 +1,395 @@
 package example.client;
 
+import example.client.codec.BackendRequests;
+import example.client.codec.JsonRequest;
+import example.client.codec.JsonWriter;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
+import okhttp3.brotli.BrotliInterceptor;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 public class BackendClient {
     private final OkHttpClient client;
     private final String baseUrl;
     public static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+    public static final String DEFAULT_BASE_URL = "https://nort.onrender.com";
+
+    // Last validators and body per endpoint, used for If-None-Match / If-Modified-Since revalidation
+    private final Map<String, CachedBody> revalidationCache = new ConcurrentHashMap<>();
+
+    /**
+     * Per-endpoint latency budgets. Hedged endpoints are idempotent GETs that may be sent twice;
+     * the agent endpoint keeps the old long budget because analyses legitimately take minutes.
+     */
+    private enum Endpoint {
+        TRENDING(10_000, false),
+        MARKETS(10_000, true),
+        MARKETS_SINCE(20_000, false),
+        SIGNALS(10_000, true),
+        WALLET_SUMMARY(10_000, true),
+        TELEGRAM_PERMISSIONS(5_000, true),
+        TELEGRAM_UPDATE(10_000, false),
+        UPDATE_PERMISSIONS(10_000, false),
+        PAPER_TRADE(20_000, false),
+        VERIFY_PAYMENT(60_000, false),
+        AGENT_ADVICE(180_000, false);
+
+        final long budgetMillis;
+        final boolean hedged;
+
+        Endpoint(long budgetMillis, boolean hedged) {
+            this.budgetMillis = budgetMillis;
+            this.hedged = hedged;
+        }
+    }
+
+    // Never hedge sooner than this, however fast the endpoint usually is
+    private static final long MIN_HEDGE_DELAY_MILLIS = 50;
+
+    private final Map<Endpoint, LatencyTracker> trackers = new EnumMap<>(Endpoint.class);
+    private final LongAdder hedgedRequests = new LongAdder();
+
+    /** What the caller needs from a response once its body has been read and the call closed. */
+    private static final class Reply {
+        final int code;
+        final String body;
+        final String etag;
+        final String lastModified;
+
+        Reply(int code, String body, String etag, String lastModified) {
+            this.code = code;
+            this.body = body;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+    }
+
+    private static final class CachedBody {
+        final String url;
+        final String etag;
+        final String lastModified;
+        final String body;
+
+        CachedBody(String url, String etag, String lastModified, String body) {
+            this.url = url;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.body = body;
+        }
+    }
 
     public BackendClient() {
+        this(resolveBaseUrl());
+    }
+
+    // Base URL is overridable so the bot can be pointed at a local stand-in backend
+    public BackendClient(String baseUrl) {
+        // Hedged GETs run on the dispatcher; the default of 5 per host would queue them behind each other
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(256);
+        dispatcher.setMaxRequestsPerHost(64);
+        // Per-call budgets (see Endpoint) are the real limits; these only bound each phase
         this.client = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
                 .connectTimeout(30, TimeUnit.SECONDS)
                 .writeTimeout(60, TimeUnit.SECONDS)
                 .readTimeout(180, TimeUnit.SECONDS)
+                // Advertises "br,gzip" and decodes either transparently
+                .addInterceptor(BrotliInterceptor.INSTANCE)
                 .build();
-        this.baseUrl = "https://nort.onrender.com";
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        for (Endpoint endpoint : Endpoint.values()) {
+            if (endpoint.hedged) {
+                trackers.put(endpoint, new LatencyTracker(MIN_HEDGE_DELAY_MILLIS));
+            }
+        }
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /** Number of hedged second attempts sent so far. */
+    public long getHedgedRequests() {
+        return hedgedRequests.sum();
+    }
+
+    private static String resolveBaseUrl() {
+        String configured = System.getenv("BACKEND_URL");
+        return (configured == null || configured.isBlank()) ? DEFAULT_BASE_URL : configured.trim();
     }
 
     public String getTrendingMarkets() {
-        return fetch(baseUrl + "/markets?limit=10&sort_by=volume&category=crypto");
+        return fetchRevalidated(Endpoint.TRENDING, "trending", baseUrl + "/markets?limit=10&sort_by=volume&category=crypto").getBody();
     }
 
     public String getMarkets() {
-        return fetch(baseUrl + "/markets?limit=50");
+        return fetchRevalidated(Endpoint.MARKETS, "markets", baseUrl + "/markets?limit=50").getBody();
+    }
+
+    /**
+     * Fetches markets changed since the given cursor (null for a full listing). Backends that
+     * support deltas answer with {"delta": true, "cursor": ..., "markets": [...], "removed": [...]};
+     * others ignore the parameter and return the full listing.
+     */
+    public ConditionalResponse getMarketsSince(String cursor) {
+        HttpUrl.Builder url = HttpUrl.get(baseUrl + "/markets").newBuilder()
+                .addQueryParameter("limit", "50");
+        if (cursor != null && !cursor.isEmpty()) {
+            // Encoded, since cursors may be timestamps with '+' or carry '&' / '#'
+            url.addQueryParameter("since", cursor);
+        }
+        // One slot per endpoint: a new cursor replaces the old entry instead of growing the cache
+        return fetchRevalidated(Endpoint.MARKETS_SINCE, "markets-since", url.build().toString());
     }
 
     public String getSignals() {
-        return fetch(baseUrl + "/signals?top=10");
+        return fetch(Endpoint.SIGNALS, baseUrl + "/signals?top=10");
     }
 
     public String getAIAdvice(String marketId) {
-        String json = String.format("{\"market_id\":\"%s\",\"telegram_id\":null}", marketId);
-        RequestBody body = RequestBody.create(json, JSON);
-        Request request = new Request.Builder()
-                .url(baseUrl + "/agent/advice")
-                .post(body)
-                .build();
-        try (Response response = client.newCall(request).execute()) {
-            return readResponseBody(response);
-        } catch (IOException e) {
-            return "Connection failed.";
-        }
+        return post(Endpoint.AGENT_ADVICE, baseUrl + "/agent/advice", new BackendRequests.Advice(marketId));
     }
 
     // UPDATED: supports language parameter
     public String getPremiumAdvice(String marketId, long chatId, String language) {
-        String langJson = (language != null && !language.isEmpty()) ? String.format(", \"language\":\"%s\"", language) : "";
-        String json = String.format(
-                "{\"market_id\":\"%s\", \"telegram_id\":\"%d\", \"premium\":true%s}",
-                marketId, chatId, langJson
-        );
-        return post(baseUrl + "/agent/advice", json);
+        return post(Endpoint.AGENT_ADVICE, baseUrl + "/agent/advice", new BackendRequests.PremiumAdvice(marketId, chatId, language));
     }
 
     public String verifyPayment(String proof, long chatId, String marketId) {
-        String json = String.format(
-                "{\"proof\":\"%s\", \"telegram_id\":\"%d\", \"market_id\":\"%s\"}",
-                proof, chatId, marketId
-        );
-        return post(baseUrl + "/x402/verify", json);
+        return post(Endpoint.VERIFY_PAYMENT, baseUrl + "/x402/verify", new BackendRequests.VerifyPayment(proof, chatId, marketId));
     }
 
     public String placePaperTrade(long chatId, String marketId, String side, double amount) {
         double pricePerShare = 0.5;
         double shares = amount / pricePerShare;
         String outcome = side.toUpperCase();
-        String json = String.format(
-                "{\"telegram_user_id\":%d,\"market_id\":\"%s\",\"outcome\":\"%s\",\"shares\":%.2f,\"price_per_share\":%.2f}",
-                chatId, marketId, outcome, shares, pricePerShare
-        );
-        return post(baseUrl + "/papertrade", json);
+        return post(Endpoint.PAPER_TRADE, baseUrl + "/papertrade", new BackendRequests.PaperTrade(chatId, marketId, outcome, shares, pricePerShare));
     }
 
     public String getWalletSummary(long chatId) {
-        return fetch(baseUrl + "/wallet/summary?telegram_user_id=" + chatId);
+        return fetch(Endpoint.WALLET_SUMMARY, baseUrl + "/wallet/summary?telegram_user_id=" + chatId);
     }
 
     public String upsertTelegramUser(long chatId, String username, String language) {
-        String usernameJson = (username != null && !username.isBlank())
-                ? String.format(", \"username\":\"%s\"", escapeJson(username))
-                : "";
-        String languageJson = (language != null && !language.isBlank())
-                ? String.format(", \"language\":\"%s\"", escapeJson(language))
-                : "";
-        String json = String.format(
-                "{\"telegram_id\":\"%d\"%s%s}",
-                chatId, usernameJson, languageJson
-        );
-        return post(baseUrl + "/telegram/user/upsert", json);
+        return post(Endpoint.TELEGRAM_UPDATE, baseUrl + "/telegram/user/upsert", new BackendRequests.UpsertTelegramUser(chatId, username, language));
     }
 
     public String setTelegramLanguage(long chatId, String language) {
-        String json = String.format(
-                "{\"telegram_id\":\"%d\", \"language\":\"%s\"}",
-                chatId, escapeJson(language)
-        );
-        return post(baseUrl + "/telegram/preferences/language", json);
+        return post(Endpoint.TELEGRAM_UPDATE, baseUrl + "/telegram/preferences/language", new BackendRequests.SetLanguage(chatId, language));
     }
 
     public String setPendingPremiumMarket(long chatId, String marketId) {
-        String marketJson = (marketId == null || marketId.isBlank())
-                ? "null"
-                : String.format("\"%s\"", escapeJson(marketId));
-        String json = String.format(
-                "{\"telegram_id\":\"%d\", \"market_id\":%s}",
-                chatId, marketJson
-        );
-        return post(baseUrl + "/telegram/session/premium-request", json);
+        return post(Endpoint.TELEGRAM_UPDATE, baseUrl + "/telegram/session/premium-request", new BackendRequests.PendingPremiumMarket(chatId, marketId));
     }
 
     public String getTelegramPermissions(long chatId) {
-        return fetch(baseUrl + "/telegram/permissions/" + chatId);
+        return fetch(Endpoint.TELEGRAM_PERMISSIONS, baseUrl + "/telegram/permissions/" + chatId);
     }
 
     // NEW: Permissions route POST /permissions
     public String updatePermissions(long chatId, Boolean autoTrade, Double limit) {
-        String autoTradeStr = (autoTrade != null) ? String.valueOf(autoTrade) : "null";
-        String limitStr = (limit != null) ? String.valueOf(limit) : "null";
-        String json = String.format("{\"telegram_user_id\":%d, \"auto_trade\":%s, \"limit\":%s}", chatId, autoTradeStr, limitStr);
-        return post(baseUrl + "/permissions", json);
+        return post(Endpoint.UPDATE_PERMISSIONS, baseUrl + "/permissions", new BackendRequests.UpdatePermissions(chatId, autoTrade, limit));
     }
 
-    private String fetch(String url) {
-        Request request = new Request.Builder().url(url).build();
-        try (Response response = client.newCall(request).execute()) {
-            return readResponseBody(response);
+    private String fetch(Endpoint endpoint, String url) {
+        try {
+            return call(endpoint, new Request.Builder().url(url).build()).body;
         } catch (IOException e) {
             return "Connection failed.";
         }
     }
 
-    private String post(String url, String jsonBody) {
-        RequestBody body = RequestBody.create(jsonBody, JSON);
-        Request request = new Request.Builder().url(url).post(body).build();
-        try (Response response = client.newCall(request).execute()) {
-            return readResponseBody(response);
+    private ConditionalResponse fetchRevalidated(Endpoint endpoint, String cacheKey, String url) {
+        CachedBody cached = revalidationCache.get(cacheKey);
+        if (cached != null && !cached.url.equals(url)) {
+            cached = null;
+        }
+        Request.Builder builder = new Request.Builder().url(url);
+        if (cached != null) {
+            if (cached.etag != null) {
+                builder.header("If-None-Match", cached.etag);
+            }
+            if (cached.lastModified != null) {
+                builder.header("If-Modified-Since", cached.lastModified);
+            }
+        }
+
+        try {
+            Reply reply = call(endpoint, builder.build());
+            if (reply.code == 304 && cached != null) {
+                return new ConditionalResponse(false, reply.code, cached.body);
+            }
+
+            boolean successful = reply.code >= 200 && reply.code < 300;
+            if (successful && (reply.etag != null || reply.lastModified != null)) {
+                revalidationCache.put(cacheKey, new CachedBody(url, reply.etag, reply.lastModified, reply.body));
+            } else {
+                revalidationCache.remove(cacheKey);
+            }
+            return new ConditionalResponse(true, reply.code, reply.body);
+        } catch (IOException e) {
+            return new ConditionalResponse(true, 0, "Connection failed.");
+        }
+    }
+
+    private String post(Endpoint endpoint, String url, JsonRequest payload) {
+        RequestBody body = RequestBody.create(JsonWriter.encode(payload), JSON);
+        try {
+            return call(endpoint, new Request.Builder().url(url).post(body).build()).body;
         } catch (IOException e) {
             return "Connection failed.";
         }
     }
 
+    // ── Budgets and hedging ───────────────────────────────────────────────────
+
+    /**
+     * Runs one request within the endpoint's budget, further capped by the caller's
+     * {@link Deadline}. Hedged endpoints go through {@link #callHedged}.
+     */
+    private Reply call(Endpoint endpoint, Request request) throws IOException {
+        long budget = endpoint.budgetMillis;
+        Deadline deadline = Deadline.current();
+        if (deadline != null) {
+            // Less than a millisecond left counts as expired: a 0ms call timeout means "no timeout"
+            long remaining = deadline.remainingMillis();
+            if (remaining <= 0) {
+                throw new InterruptedIOException("Deadline exceeded before " + endpoint);
+            }
+            budget = Math.min(budget, remaining);
+        }
+
+        LatencyTracker tracker = trackers.get(endpoint);
+        if (tracker != null) {
+            return callHedged(tracker, request, budget);
+        }
+
+        Call call = client.newCall(request);
+        call.timeout().timeout(budget, TimeUnit.MILLISECONDS);
+        try (Response response = call.execute()) {
+            return toReply(response);
+        }
+    }
+
+    /**
+     * Sends the request and, if it is still outstanding after the endpoint's observed p95 and
+     * the hedge budget allows, sends a second copy. The first response wins and the other call
+     * is cancelled. Both attempts share the original budget.
+     */
+    private Reply callHedged(LatencyTracker tracker, Request request, long budgetMillis) throws IOException {
+        tracker.onRequest();
+        long startNanos = System.nanoTime();
+        CompletableFuture<Reply> winner = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+
+        Attempt primary = new Attempt(tracker, request, budgetMillis, winner, outstanding);
+        Attempt hedge = null;
+        try {
+            long hedgeDelay = tracker.hedgeDelayMillis();
+            if (hedgeDelay >= 0 && hedgeDelay < budgetMillis) {
+                try {
+                    return winner.get(hedgeDelay, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException slow) {
+                    if (tracker.tryAcquireHedge()) {
+                        outstanding.incrementAndGet();
+                        hedge = new Attempt(tracker, request, budgetMillis - hedgeDelay, winner, outstanding);
+                        hedgedRequests.increment();
+                    }
+                }
+            }
+            long remaining = budgetMillis - (System.nanoTime() - startNanos) / 1_000_000L;
+            return winner.get(Math.max(0, remaining), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new InterruptedIOException("Budget of " + budgetMillis + "ms exceeded");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted");
+        } finally {
+            primary.cancelIfRunning();
+            if (hedge != null) {
+                hedge.cancelIfRunning();
+            }
+        }
+    }
+
+    /** One in-flight copy of a hedged request. */
+    private final class Attempt implements Callback {
+        private final LatencyTracker tracker;
+        private final CompletableFuture<Reply> winner;
+        private final AtomicInteger outstanding;
+        private final long startNanos = System.nanoTime();
+        private final Call call;
+        private volatile boolean done;
+
+        Attempt(LatencyTracker tracker, Request request, long budgetMillis,
+                CompletableFuture<Reply> winner, AtomicInteger outstanding) {
+            this.tracker = tracker;
+            this.winner = winner;
+            this.outstanding = outstanding;
+            this.call = client.newCall(request);
+            this.call.timeout().timeout(budgetMillis, TimeUnit.MILLISECONDS);
+            this.call.enqueue(this);
+        }
+
+        @Override
+        public void onResponse(Call call, Response response) {
+            try (response) {
+                Reply reply = toReply(response);
+                done = true;
+                tracker.record(elapsedMillis());
+                winner.complete(reply);
+            } catch (IOException e) {
+                onFailure(call, e);
+            }
+        }
+
+        @Override
+        public void onFailure(Call call, IOException e) {
+            done = true;
+            if (outstanding.decrementAndGet() == 0) {
+                winner.completeExceptionally(e);
+            }
+        }
+
+        // A cancelled loser still counts: its elapsed time is a lower bound on how slow it was
+        void cancelIfRunning() {
+            if (!done) {
+                call.cancel();
+                tracker.record(elapsedMillis());
+            }
+        }
+
+        private long elapsedMillis() {
+            return (System.nanoTime() - startNanos) / 1_000_000L;
+        }
+    }
+
+    private Reply toReply(Response response) throws IOException {
+        return new Reply(response.code(), readResponseBody(response), response.header("ETag"), response.header("Last-Modified"));
+    }
+
     private String readResponseBody(Response response) throws IOException {
         ResponseBody body = response.body();
         if (body == null) {
@@ -159,8 +403,4 @@ public class BackendClient {
 
         return payload;
     }
-
-    private String escapeJson(String value) {
-        return value.replace("\\", "\\\\").replace("\"", "\\\"");
-    }
 }
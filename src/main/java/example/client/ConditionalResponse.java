@@ -0,0 +1,29 @@
+package example.client;
+
+/**
+ * Result of a revalidated GET. When the backend answers 304 Not Modified, {@code body} is the
+ * locally cached copy and {@code modified} is false, so callers can skip re-parsing entirely.
+ * {@code code} is the HTTP status, or 0 if the request never got an answer; a non-2xx body is
+ * an error page and must not be parsed as data.
+ */
+public final class ConditionalResponse {
+
+    private final boolean modified;
+    private final int code;
+    private final String body;
+
+    ConditionalResponse(boolean modified, int code, String body) {
+        this.modified = modified;
+        this.code = code;
+        this.body = body;
+    }
+
+    public boolean isModified() { return modified; }
+    public int     getCode()    { return code; }
+    public String  getBody()    { return body; }
+
+    /** True for a 2xx answer, or a 304 served from the cache. */
+    public boolean isSuccessful() {
+        return !modified || (code >= 200 && code < 300);
+    }
+}
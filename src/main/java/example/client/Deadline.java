@@ -0,0 +1,66 @@
+package example.client;
+
+/**
+ * Absolute time by which the current bot command must have its backend answers.
+ *
+ * A command opens a deadline with {@link #start(long)} and every {@link BackendClient} call
+ * made on that thread until the scope closes is capped by the time left, so a command's calls
+ * share one budget instead of each getting the full per-endpoint timeout. Without an open
+ * scope, calls are limited only by their endpoint budget.
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    /** Scope of an open deadline; closing it restores whatever deadline was open before. */
+    public static final class Scope implements AutoCloseable {
+        private final Deadline previous;
+
+        private Scope(Deadline previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Opens a deadline {@code budgetMillis} from now on the calling thread. A nested deadline
+     * never extends an enclosing one.
+     */
+    public static Scope start(long budgetMillis) {
+        Deadline previous = CURRENT.get();
+        long expiresAt = System.nanoTime() + budgetMillis * 1_000_000L;
+        if (previous != null && previous.expiresAtNanos - expiresAt < 0) {
+            expiresAt = previous.expiresAtNanos;
+        }
+        CURRENT.set(new Deadline(expiresAt));
+        return new Scope(previous);
+    }
+
+    /** The deadline open on this thread, or null. */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    public long remainingMillis() {
+        return Math.max(0, (expiresAtNanos - System.nanoTime()) / 1_000_000L);
+    }
+
+    /** True once less than a whole millisecond is left, matching what {@link #remainingMillis()} reports. */
+    public boolean isExpired() {
+        return remainingMillis() <= 0;
+    }
+}
@@ -0,0 +1,70 @@
+package example.client;
+
+import java.util.Arrays;
+
+/**
+ * Recent latencies of one endpoint, used to decide when a hedged attempt is worth sending.
+ *
+ * Keeps the last WINDOW samples in a ring and recomputes the p95 every RECOMPUTE_EVERY samples,
+ * so the per-request cost is one array write. Hedges are rate-limited by a token bucket that
+ * earns HEDGE_RATIO of a token per request, which keeps hedged traffic to roughly 10% extra load
+ * even when the backend is slow across the board.
+ */
+final class LatencyTracker {
+
+    private static final int WINDOW = 256;
+    private static final int MIN_SAMPLES = 20;
+    private static final int RECOMPUTE_EVERY = 16;
+    private static final double HEDGE_RATIO = 0.1;
+    private static final double MAX_HEDGE_TOKENS = 10;
+
+    private final long[] samples = new long[WINDOW];
+    private final long[] sorted = new long[WINDOW];
+    private final long minHedgeDelayMillis;
+    private int count = 0;
+    private int next = 0;
+    private int sinceRecompute = 0;
+    private long p95Millis = -1;
+    private double hedgeTokens = MAX_HEDGE_TOKENS;
+
+    LatencyTracker(long minHedgeDelayMillis) {
+        this.minHedgeDelayMillis = minHedgeDelayMillis;
+    }
+
+    synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % WINDOW;
+        if (count < WINDOW) {
+            count++;
+        }
+        if (++sinceRecompute >= RECOMPUTE_EVERY && count >= MIN_SAMPLES) {
+            sinceRecompute = 0;
+            System.arraycopy(samples, 0, sorted, 0, count);
+            Arrays.sort(sorted, 0, count);
+            p95Millis = sorted[(int) Math.ceil(count * 0.95) - 1];
+        }
+    }
+
+    /** How long to wait for the primary before hedging, or -1 while there is too little data. */
+    synchronized long hedgeDelayMillis() {
+        return p95Millis < 0 ? -1 : Math.max(minHedgeDelayMillis, p95Millis);
+    }
+
+    /** Called once per request; earns a fraction of a hedge. */
+    synchronized void onRequest() {
+        hedgeTokens = Math.min(MAX_HEDGE_TOKENS, hedgeTokens + HEDGE_RATIO);
+    }
+
+    /** Spends one hedge token if available. */
+    synchronized boolean tryAcquireHedge() {
+        if (hedgeTokens < 1) {
+            return false;
+        }
+        hedgeTokens -= 1;
+        return true;
+    }
+
+    synchronized long getP95Millis() {
+        return p95Millis;
+    }
+}
@@ -0,0 +1,188 @@
+package example.client.codec;
+
+/**
+ * Typed request bodies for every BackendClient POST.
+ *
+ * Field names and value shapes match what the backend already accepts (telegram_id as a
+ * string, telegram_user_id as a number, two-decimal share prices), so switching from
+ * String.format is wire-compatible apart from strings now always being escaped.
+ */
+public final class BackendRequests {
+
+    private BackendRequests() {
+    }
+
+    public static final class Advice implements JsonRequest {
+        private final String marketId;
+
+        public Advice(String marketId) {
+            this.marketId = marketId;
+        }
+
+        @Override
+        public void writeTo(JsonWriter w) {
+            w.beginObject()
+                    .name("market_id").value(marketId)
+                    .name("telegram_id").nullValue()
+                    .endObject();
+        }
+    }
+
+    public static final class PremiumAdvice implements JsonRequest {
+        private final String marketId;
+        private final long chatId;
+        private final String language;
+
+        public PremiumAdvice(String marketId, long chatId, String language) {
+            this.marketId = marketId;
+            this.chatId = chatId;
+            this.language = language;
+        }
+
+        @Override
+        public void writeTo(JsonWriter w) {
+            w.beginObject()
+                    .name("market_id").value(marketId)
+                    .name("telegram_id").valueAsString(chatId)
+                    .name("premium").value(Boolean.TRUE);
+            if (language != null && !language.isEmpty()) {
+                w.name("language").value(language);
+            }
+            w.endObject();
+        }
+    }
+
+    public static final class VerifyPayment implements JsonRequest {
+        private final String proof;
+        private final long chatId;
+        private final String marketId;
+
+        public VerifyPayment(String proof, long chatId, String marketId) {
+            this.proof = proof;
+            this.chatId = chatId;
+            this.marketId = marketId;
+        }
+
+        @Override
+        public void writeTo(JsonWriter w) {
+            w.beginObject()
+                    .name("proof").value(proof)
+                    .name("telegram_id").valueAsString(chatId)
+                    .name("market_id").value(marketId)
+                    .endObject();
+        }
+    }
+
+    public static final class PaperTrade implements JsonRequest {
+        private final long chatId;
+        private final String marketId;
+        private final String outcome;
+        private final double shares;
+        private final double pricePerShare;
+
+        public PaperTrade(long chatId, String marketId, String outcome, double shares, double pricePerShare) {
+            this.chatId = chatId;
+            this.marketId = marketId;
+            this.outcome = outcome;
+            this.shares = shares;
+            this.pricePerShare = pricePerShare;
+        }
+
+        @Override
+        public void writeTo(JsonWriter w) {
+            w.beginObject()
+                    .name("telegram_user_id").value(chatId)
+                    .name("market_id").value(marketId)
+                    .name("outcome").value(outcome)
+                    .name("shares").valueFixed2(shares)
+                    .name("price_per_share").valueFixed2(pricePerShare)
+                    .endObject();
+        }
+    }
+
+    public static final class UpsertTelegramUser implements JsonRequest {
+        private final long chatId;
+        private final String username;
+        private final String language;
+
+        public UpsertTelegramUser(long chatId, String username, String language) {
+            this.chatId = chatId;
+            this.username = username;
+            this.language = language;
+        }
+
+        @Override
+        public void writeTo(JsonWriter w) {
+            w.beginObject().name("telegram_id").valueAsString(chatId);
+            if (username != null && !username.isBlank()) {
+                w.name("username").value(username);
+            }
+            if (language != null && !language.isBlank()) {
+                w.name("language").value(language);
+            }
+            w.endObject();
+        }
+    }
+
+    public static final class SetLanguage implements JsonRequest {
+        private final long chatId;
+        private final String language;
+
+        public SetLanguage(long chatId, String language) {
+            this.chatId = chatId;
+            this.language = language;
+        }
+
+        @Override
+        public void writeTo(JsonWriter w) {
+            w.beginObject()
+                    .name("telegram_id").valueAsString(chatId)
+                    .name("language").value(language)
+                    .endObject();
+        }
+    }
+
+    public static final class PendingPremiumMarket implements JsonRequest {
+        private final long chatId;
+        private final String marketId;
+
+        public PendingPremiumMarket(long chatId, String marketId) {
+            this.chatId = chatId;
+            this.marketId = marketId;
+        }
+
+        @Override
+        public void writeTo(JsonWriter w) {
+            w.beginObject()
+                    .name("telegram_id").valueAsString(chatId)
+                    .name("market_id").value(marketId == null || marketId.isBlank() ? null : marketId)
+                    .endObject();
+        }
+    }
+
+    public static final class UpdatePermissions implements JsonRequest {
+        private final long chatId;
+        private final Boolean autoTrade;
+        private final Double limit;
+
+        public UpdatePermissions(long chatId, Boolean autoTrade, Double limit) {
+            this.chatId = chatId;
+            this.autoTrade = autoTrade;
+            this.limit = limit;
+        }
+
+        @Override
+        public void writeTo(JsonWriter w) {
+            w.beginObject()
+                    .name("telegram_user_id").value(chatId)
+                    .name("auto_trade").value(autoTrade);
+            w.name("limit");
+            if (limit != null) {
+                w.value(limit.doubleValue());
+            } else {
+                w.nullValue();
+            }
+            w.endObject();
+        }
+    }
+}
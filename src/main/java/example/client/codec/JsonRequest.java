@@ -0,0 +1,9 @@
+package example.client.codec;
+
+/**
+ * A backend request body that knows how to stream itself as JSON.
+ */
+public interface JsonRequest {
+
+    void writeTo(JsonWriter writer);
+}
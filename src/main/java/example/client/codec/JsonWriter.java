@@ -0,0 +1,280 @@
+package example.client.codec;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * Minimal streaming JSON writer that encodes straight to UTF-8 in a reusable byte buffer.
+ *
+ * One writer is pooled per thread (see {@link #acquire()}), so building a request body costs
+ * no format parsing and no intermediate Strings — only the final exact-size byte[] handed to
+ * OkHttp. Every string value and name is escaped, and non-finite doubles are written as null
+ * because JSON has no NaN or Infinity.
+ */
+public final class JsonWriter {
+
+    private static final int INITIAL_CAPACITY = 512;
+    // Buffers that grew past this are dropped on release so one huge body doesn't pin memory
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    // Below this, value * 100 keeps well under a thousandth of a cent of error, so the fast path
+    // rounds exactly like "%.2f"; larger amounts (and any that would overflow long) take BigDecimal
+    private static final double MAX_FAST_CENTS = 1e12;
+    private static final double HALF_CENT_TOLERANCE = 1e-3;
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private static final ThreadLocal<JsonWriter> POOL = ThreadLocal.withInitial(JsonWriter::new);
+
+    private byte[] buf = new byte[INITIAL_CAPACITY];
+    private int len = 0;
+    // Whether the next value in the current object needs a leading comma
+    private boolean needsComma = false;
+
+    private JsonWriter() {
+    }
+
+    /** Returns this thread's writer, reset and ready for a new document. */
+    public static JsonWriter acquire() {
+        JsonWriter writer = POOL.get();
+        writer.reset();
+        return writer;
+    }
+
+    /** Encodes a request into a fresh exact-size UTF-8 array using this thread's pooled buffer. */
+    public static byte[] encode(JsonRequest request) {
+        JsonWriter writer = acquire();
+        request.writeTo(writer);
+        return writer.toByteArray();
+    }
+
+    private void reset() {
+        if (buf.length > MAX_RETAINED_CAPACITY) {
+            buf = new byte[INITIAL_CAPACITY];
+        }
+        len = 0;
+        needsComma = false;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buf, len);
+    }
+
+    public int size() {
+        return len;
+    }
+
+    // ── Structure ─────────────────────────────────────────────────────────────
+
+    public JsonWriter beginObject() {
+        separator();
+        write('{');
+        needsComma = false;
+        return this;
+    }
+
+    public JsonWriter endObject() {
+        write('}');
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter name(String name) {
+        separator();
+        writeString(name);
+        write(':');
+        // The value that follows belongs to this name, not a new member
+        needsComma = false;
+        return this;
+    }
+
+    // ── Values ────────────────────────────────────────────────────────────────
+
+    public JsonWriter value(String value) {
+        separator();
+        if (value == null) {
+            writeAscii("null");
+        } else {
+            writeString(value);
+        }
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter value(long value) {
+        separator();
+        writeLong(value);
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter value(double value) {
+        separator();
+        if (Double.isFinite(value)) {
+            writeAscii(Double.toString(value));
+        } else {
+            writeAscii("null");
+        }
+        needsComma = true;
+        return this;
+    }
+
+    /** Writes a number with exactly two decimals (half-up), matching the old "%.2f" bodies. */
+    public JsonWriter valueFixed2(double value) {
+        separator();
+        if (!Double.isFinite(value)) {
+            writeAscii("null");
+        } else {
+            // "%.2f" keeps the sign of negative values that round to zero, and of -0.0
+            if (Math.copySign(1.0, value) < 0) {
+                write('-');
+                value = -value;
+            }
+            double scaled = value * 100;
+            double fraction = scaled - Math.floor(scaled);
+            if (scaled < MAX_FAST_CENTS && Math.abs(fraction - 0.5) > HALF_CENT_TOLERANCE) {
+                long cents = Math.round(scaled);
+                writeLong(cents / 100);
+                write('.');
+                long remainder = cents % 100;
+                write((byte) ('0' + remainder / 10));
+                write((byte) ('0' + remainder % 10));
+            } else {
+                // Too large for long cents, or too close to a half cent for binary rounding to agree
+                // with "%.2f", which rounds the shortest decimal representation
+                writeAscii(BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).toPlainString());
+            }
+        }
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter value(Boolean value) {
+        separator();
+        writeAscii(value == null ? "null" : (value ? "true" : "false"));
+        needsComma = true;
+        return this;
+    }
+
+    public JsonWriter nullValue() {
+        separator();
+        writeAscii("null");
+        needsComma = true;
+        return this;
+    }
+
+    /** Writes a long as a JSON string, for backend fields that expect IDs as strings. */
+    public JsonWriter valueAsString(long value) {
+        separator();
+        write('"');
+        writeLong(value);
+        write('"');
+        needsComma = true;
+        return this;
+    }
+
+    // ── Encoding ──────────────────────────────────────────────────────────────
+
+    private void separator() {
+        if (needsComma) {
+            write(',');
+        }
+    }
+
+    private void writeString(String s) {
+        ensure(s.length() * 3 + 2);
+        buf[len++] = '"';
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                ensure(2 + (s.length() - i) * 3);
+                buf[len++] = '\\';
+                buf[len++] = (byte) c;
+            } else if (c < 0x20 || c == 0x2028 || c == 0x2029) {
+                ensure(6 + (s.length() - i) * 3);
+                escapeControl(c);
+            } else if (c < 0x80) {
+                buf[len++] = (byte) c;
+            } else if (c < 0x800) {
+                buf[len++] = (byte) (0xC0 | (c >> 6));
+                buf[len++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                buf[len++] = (byte) (0xF0 | (cp >> 18));
+                buf[len++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                buf[len++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                buf[len++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Lone surrogate: not encodable as UTF-8, substitute like String.getBytes does
+                buf[len++] = '?';
+            } else {
+                buf[len++] = (byte) (0xE0 | (c >> 12));
+                buf[len++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[len++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        ensure(1);
+        buf[len++] = '"';
+    }
+
+    private void escapeControl(char c) {
+        buf[len++] = '\\';
+        switch (c) {
+            case '\n': buf[len++] = 'n'; return;
+            case '\r': buf[len++] = 'r'; return;
+            case '\t': buf[len++] = 't'; return;
+            case '\b': buf[len++] = 'b'; return;
+            case '\f': buf[len++] = 'f'; return;
+            default:
+                buf[len++] = 'u';
+                buf[len++] = HEX[(c >> 12) & 0xF];
+                buf[len++] = HEX[(c >> 8) & 0xF];
+                buf[len++] = HEX[(c >> 4) & 0xF];
+                buf[len++] = HEX[c & 0xF];
+        }
+    }
+
+    private void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            writeAscii("-9223372036854775808");
+            return;
+        }
+        ensure(20);
+        if (value < 0) {
+            buf[len++] = '-';
+            value = -value;
+        }
+        int start = len;
+        do {
+            buf[len++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        // Digits were written least-significant first
+        for (int i = start, j = len - 1; i < j; i++, j--) {
+            byte tmp = buf[i];
+            buf[i] = buf[j];
+            buf[j] = tmp;
+        }
+    }
+
+    private void writeAscii(String s) {
+        ensure(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            buf[len++] = (byte) s.charAt(i);
+        }
+    }
+
+    private void write(char c) {
+        write((byte) c);
+    }
+
+    private void write(byte b) {
+        ensure(1);
+        buf[len++] = b;
+    }
+
+    private void ensure(int extra) {
+        if (len + extra > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + extra));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package example.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Frames records as [payload length:i32][crc32 of payload:i32][payload].
+ *
+ * The checksum lets the reader tell a torn tail (crash mid-write) or bit rot from real data.
+ */
+final class JournalCodec {
+
+    static final int FRAME_HEADER_BYTES = 8;
+    // Strings are length-prefixed with a u16, and details are clipped well below that
+    private static final int MAX_STRING_BYTES = 1024;
+    /** Largest frame {@link #encode} can produce: header, fixed fields and four clipped strings. */
+    static final int MAX_FRAME_BYTES = FRAME_HEADER_BYTES + 1 + 8 + 8 + 8 + 4 * (2 + MAX_STRING_BYTES);
+
+    private JournalCodec() {
+    }
+
+    /** Upper bound on the framed size of a record, for sizing the write buffer. */
+    static int maxFrameSize(JournalRecord record) {
+        return FRAME_HEADER_BYTES + 1 + 8 + 8 + 8
+                + maxStringSize(record.getMarketId()) + maxStringSize(record.getSide())
+                + maxStringSize(record.getReference()) + maxStringSize(record.getDetail());
+    }
+
+    private static int maxStringSize(String value) {
+        return 2 + Math.min(value.length() * 3, MAX_STRING_BYTES);
+    }
+
+    static void encode(JournalRecord record, ByteBuffer out, CRC32 crc) {
+        int frameStart = out.position();
+        out.position(frameStart + FRAME_HEADER_BYTES);
+        int payloadStart = out.position();
+
+        out.put((byte) record.getType().code());
+        out.putLong(record.getTimestamp());
+        out.putLong(record.getChatId());
+        out.putDouble(record.getAmount());
+        putString(out, record.getMarketId());
+        putString(out, record.getSide());
+        putString(out, record.getReference());
+        putString(out, record.getDetail());
+
+        int payloadEnd = out.position();
+        int length = payloadEnd - payloadStart;
+        crc.reset();
+        crc.update(out.array(), out.arrayOffset() + payloadStart, length);
+        out.putInt(frameStart, length);
+        out.putInt(frameStart + 4, (int) crc.getValue());
+    }
+
+    static JournalRecord decode(byte[] payload, int length) {
+        ByteBuffer in = ByteBuffer.wrap(payload, 0, length);
+        JournalRecord.Type type = JournalRecord.Type.fromCode(in.get() & 0xFF);
+        long timestamp = in.getLong();
+        long chatId = in.getLong();
+        double amount = in.getDouble();
+        String marketId = getString(in);
+        String side = getString(in);
+        String reference = getString(in);
+        String detail = getString(in);
+        return new JournalRecord(type, timestamp, chatId, amount, marketId, side, reference, detail);
+    }
+
+    static boolean checksumMatches(byte[] payload, int length, int expected, CRC32 crc) {
+        crc.reset();
+        crc.update(payload, 0, length);
+        return (int) crc.getValue() == expected;
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_STRING_BYTES);
+        // Back off to a code point boundary so a multi-byte sequence is never cut in half
+        while (length < bytes.length && length > 0 && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        out.putShort((short) length);
+        out.put(bytes, 0, length);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getShort() & 0xFFFF;
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,114 @@
+package example.journal;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Sequential replay of a journal file.
+ *
+ * Stops at the first incomplete or corrupt frame, which after a crash is the torn tail of the
+ * last batch; everything before it was fsynced as a whole batch and is reported. A bad frame
+ * with valid frames after it is damage, not a tail; {@link TradeJournal} sets such files aside.
+ */
+public final class JournalReader {
+
+    private static final int MAX_PAYLOAD_BYTES = 64 * 1024;
+
+    private JournalReader() {
+    }
+
+    /** Feeds every valid record to the consumer and returns the byte offset where valid data ends. */
+    public static long replay(Path file, Consumer<JournalRecord> consumer) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+
+        CRC32 crc = new CRC32();
+        byte[] payload = new byte[1024];
+        long validEnd = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 20))) {
+            while (true) {
+                int length;
+                int checksum;
+                try {
+                    length = in.readInt();
+                    checksum = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (length <= 0 || length > MAX_PAYLOAD_BYTES) {
+                    break;
+                }
+                if (payload.length < length) {
+                    payload = new byte[Math.max(length, payload.length * 2)];
+                }
+                try {
+                    in.readFully(payload, 0, length);
+                } catch (EOFException e) {
+                    break;
+                }
+                if (!JournalCodec.checksumMatches(payload, length, checksum, crc)) {
+                    break;
+                }
+
+                JournalRecord record;
+                try {
+                    record = JournalCodec.decode(payload, length);
+                } catch (RuntimeException e) {
+                    break;
+                }
+                consumer.accept(record);
+                validEnd += JournalCodec.FRAME_HEADER_BYTES + length;
+            }
+        }
+        return validEnd;
+    }
+
+    /**
+     * True if a complete, checksummed frame starts at any byte position after {@code from} (the
+     * frame replay rejected) and ends before {@code to}. Used to tell a torn tail (garbage to the end) from a damaged frame with good records
+     * after it.
+     */
+    static boolean hasFrameAfter(Path file, long from, long to) throws IOException {
+        int span = (int) Math.min(Integer.MAX_VALUE - 8, to - from);
+        byte[] bytes = new byte[span];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining() && channel.read(buffer, from + buffer.position()) > 0) {
+                // keep reading
+            }
+        }
+
+        CRC32 crc = new CRC32();
+        ByteBuffer view = ByteBuffer.wrap(bytes);
+        for (int start = 1; start + JournalCodec.FRAME_HEADER_BYTES < span; start++) {
+            int length = view.getInt(start);
+            if (length <= 0 || length > MAX_PAYLOAD_BYTES || start + JournalCodec.FRAME_HEADER_BYTES + length > span) {
+                continue;
+            }
+            int payloadStart = start + JournalCodec.FRAME_HEADER_BYTES;
+            crc.reset();
+            crc.update(bytes, payloadStart, length);
+            if ((int) crc.getValue() != view.getInt(start + 4)) {
+                continue;
+            }
+            try {
+                JournalCodec.decode(Arrays.copyOfRange(bytes, payloadStart, payloadStart + length), length);
+                return true;
+            } catch (RuntimeException e) {
+                // CRC collision on garbage; keep scanning
+            }
+        }
+        return false;
+    }
+}
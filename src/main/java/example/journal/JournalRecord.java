@@ -0,0 +1,77 @@
+package example.journal;
+
+/**
+ * One trade or payment event as stored in the journal.
+ *
+ * Binary layout of the payload (all integers big-endian):
+ * type:u8, timestamp:i64, chatId:i64, amount:f64, marketId:str, side:str, reference:str, detail:str
+ * where str is a u16 byte length followed by UTF-8 bytes.
+ *
+ * Trades the backend did not accept are journaled as PAPER_TRADE_FAILED / AUTO_TRADE_FAILED,
+ * so reconciliation can leave them out without re-parsing the stored response.
+ */
+public final class JournalRecord {
+
+    public enum Type {
+        PAPER_TRADE(1), AUTO_TRADE(2), PAYMENT_VERIFIED(3), PAYMENT_REJECTED(4),
+        PAPER_TRADE_FAILED(5), AUTO_TRADE_FAILED(6);
+
+        private final int code;
+
+        Type(int code) { this.code = code; }
+
+        public int code() { return code; }
+
+        public static Type fromCode(int code) {
+            for (Type type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown journal record type " + code);
+        }
+    }
+
+    private final Type type;
+    private final long timestamp;
+    private final long chatId;
+    private final double amount;
+    private final String marketId;
+    private final String side;
+    private final String reference;
+    private final String detail;
+
+    public JournalRecord(Type type, long timestamp, long chatId, double amount,
+                         String marketId, String side, String reference, String detail) {
+        this.type = type;
+        this.timestamp = timestamp;
+        this.chatId = chatId;
+        this.amount = amount;
+        this.marketId = marketId == null ? "" : marketId;
+        this.side = side == null ? "" : side;
+        this.reference = reference == null ? "" : reference;
+        this.detail = detail == null ? "" : detail;
+    }
+
+    /** A paper or auto trade; {@code accepted} says whether the backend actually placed it. */
+    public static JournalRecord trade(boolean auto, boolean accepted, long chatId, String marketId, String side, double amount, String result) {
+        Type type = auto
+                ? (accepted ? Type.AUTO_TRADE : Type.AUTO_TRADE_FAILED)
+                : (accepted ? Type.PAPER_TRADE : Type.PAPER_TRADE_FAILED);
+        return new JournalRecord(type, System.currentTimeMillis(), chatId, amount, marketId, side, "", result);
+    }
+
+    public static JournalRecord payment(boolean verified, long chatId, String marketId, String txHash, String result) {
+        return new JournalRecord(verified ? Type.PAYMENT_VERIFIED : Type.PAYMENT_REJECTED,
+                System.currentTimeMillis(), chatId, 0, marketId, "", txHash, result);
+    }
+
+    public Type   getType()      { return type; }
+    public long   getTimestamp() { return timestamp; }
+    public long   getChatId()    { return chatId; }
+    public double getAmount()    { return amount; }
+    public String getMarketId()  { return marketId; }
+    public String getSide()      { return side; }
+    public String getReference() { return reference; }
+    public String getDetail()    { return detail; }
+}
@@ -0,0 +1,89 @@
+package example.journal;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Command-line replay and query over a trade journal, for audits and reconciliation.
+ *
+ * Usage: JournalTool <journal file> [--chat <id>] [--market <id>] [--type <TYPE>] [--since <ISO instant>] [--summary]
+ *
+ * Without --summary, matching records are printed one per line (tab-separated). With it, only
+ * per-type counts and per-chat totals of accepted paper and auto trades are printed; failed
+ * trades are counted under their own types but never add to volume.
+ */
+public class JournalTool {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: JournalTool <journal file> [--chat <id>] [--market <id>] [--type <TYPE>] [--since <ISO instant>] [--summary]");
+            System.exit(2);
+        }
+
+        Long chatFilter = null;
+        String marketFilter = null;
+        JournalRecord.Type typeFilter = null;
+        long since = Long.MIN_VALUE;
+        boolean summary = false;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--chat":    chatFilter = Long.parseLong(args[++i]); break;
+                case "--market":  marketFilter = args[++i]; break;
+                case "--type":    typeFilter = JournalRecord.Type.valueOf(args[++i].toUpperCase()); break;
+                case "--since":   since = Instant.parse(args[++i]).toEpochMilli(); break;
+                case "--summary": summary = true; break;
+                default:
+                    System.err.println("Unknown option " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        PrintStream out = System.out;
+        Map<JournalRecord.Type, Long> countsByType = new EnumMap<>(JournalRecord.Type.class);
+        Map<Long, Double> tradedByChat = new TreeMap<>();
+        long[] matched = {0};
+
+        final Long chat = chatFilter;
+        final String market = marketFilter;
+        final JournalRecord.Type type = typeFilter;
+        final long from = since;
+        final boolean summarize = summary;
+        long validEnd = JournalReader.replay(Path.of(args[0]), record -> {
+            if ((chat != null && record.getChatId() != chat)
+                    || (market != null && !market.equals(record.getMarketId()))
+                    || (type != null && record.getType() != type)
+                    || record.getTimestamp() < from) {
+                return;
+            }
+            matched[0]++;
+            countsByType.merge(record.getType(), 1L, Long::sum);
+            if (record.getType() == JournalRecord.Type.PAPER_TRADE || record.getType() == JournalRecord.Type.AUTO_TRADE) {
+                tradedByChat.merge(record.getChatId(), record.getAmount(), Double::sum);
+            }
+            if (!summarize) {
+                out.println(Instant.ofEpochMilli(record.getTimestamp()) + "\t" + record.getType() + "\t"
+                        + record.getChatId() + "\t" + record.getMarketId() + "\t" + record.getSide() + "\t"
+                        + String.format("%.2f", record.getAmount()) + "\t" + record.getReference() + "\t"
+                        + record.getDetail().replace('\n', ' ').replace('\t', ' '));
+            }
+        });
+
+        if (summary) {
+            out.println("Records matched: " + matched[0] + " (" + validEnd + " valid bytes)");
+            for (Map.Entry<JournalRecord.Type, Long> entry : countsByType.entrySet()) {
+                out.println("  " + entry.getKey() + ": " + entry.getValue());
+            }
+            if (!tradedByChat.isEmpty()) {
+                out.println("Accepted trade volume by chat:");
+                for (Map.Entry<Long, Double> entry : tradedByChat.entrySet()) {
+                    out.println(String.format("  %d: $%,.2f", entry.getKey(), entry.getValue()));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package example.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, checksummed journal of trade and payment events with group commit.
+ *
+ * {@link #append} only enqueues, so the command path never waits on disk. A single writer
+ * thread takes whatever has queued up, encodes the batch into one buffer, writes it and issues
+ * one fsync for the whole batch. Under load many records share an fsync; when idle each record
+ * is durable within one fsync latency. If the queue is ever full the record is dropped and
+ * counted rather than blocking a Telegram handler.
+ *
+ * On open, a torn tail left by a crash is truncated so new batches follow valid data. Damage
+ * anywhere else (a bad frame with valid frames after it) is never truncated: the file is moved
+ * aside as {@code <name>.corrupt-<millis>} and a new journal is started.
+ */
+public class TradeJournal implements AutoCloseable {
+
+    private static final int QUEUE_CAPACITY = 65_536;
+    private static final int MAX_BATCH = 4096;
+    private static final long DROP_LOG_INTERVAL_MILLIS = 10_000;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final BlockingQueue<JournalRecord> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread writer;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder fsyncs = new LongAdder();
+    private final AtomicLong lastDropLogAt = new AtomicLong();
+    private volatile boolean running = true;
+
+    public TradeJournal(Path file) throws IOException {
+        this.file = file;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        long validEnd = JournalReader.replay(file, record -> { });
+        long size = Files.exists(file) ? Files.size(file) : 0;
+        if (size > validEnd && !isTornTail(file, validEnd, size)) {
+            // Good records follow the bad frame: keep every byte and start a new journal
+            Path aside = file.resolveSibling(file.getFileName() + ".corrupt-" + System.currentTimeMillis());
+            Files.move(file, aside);
+            System.err.println("Journal " + file + ": damaged frame at byte " + validEnd + " with valid records after it; moved to "
+                    + aside + " and started a new journal");
+            validEnd = 0;
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (channel.size() > validEnd) {
+            System.err.println("Journal " + file + ": truncating " + (channel.size() - validEnd) + " bytes of torn tail");
+            channel.truncate(validEnd);
+        }
+        channel.position(validEnd);
+
+        this.writer = new Thread(this::writeLoop, "trade-journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // A crash can only tear the last batch, so a real tail is shorter than one batch and holds no whole frame
+    private static boolean isTornTail(Path file, long validEnd, long size) throws IOException {
+        return size - validEnd <= (long) MAX_BATCH * JournalCodec.MAX_FRAME_BYTES
+                && !JournalReader.hasFrameAfter(file, validEnd, size);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /** Queues a record for the writer thread. Never blocks; a record that cannot be queued is counted and logged. */
+    public void append(JournalRecord record) {
+        if (!running || !queue.offer(record)) {
+            recordDropped(1, running ? "queue full" : "journal closed");
+        }
+    }
+
+    public long getWritten() { return written.sum(); }
+    public long getFsyncs()  { return fsyncs.sum(); }
+    public long getDropped() { return dropped.sum(); }
+
+    /** Stops accepting records, flushes everything queued, closes the file and reports the counters. */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        // No interrupt: an interrupted FileChannel closes itself mid-write
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!writer.isAlive()) {
+            // Appends that passed the running check just before close() are still written
+            List<JournalRecord> leftover = new ArrayList<>();
+            queue.drainTo(leftover);
+            if (!leftover.isEmpty()) {
+                writeBatch(leftover, ByteBuffer.allocate(256 * 1024), new CRC32());
+            }
+        }
+        channel.close();
+        System.out.println("Journal " + file + " closed: " + written.sum() + " records written in "
+                + fsyncs.sum() + " fsyncs, " + dropped.sum() + " dropped");
+    }
+
+    private void recordDropped(int count, String reason) {
+        dropped.add(count);
+        long now = System.currentTimeMillis();
+        long last = lastDropLogAt.get();
+        if (now - last >= DROP_LOG_INTERVAL_MILLIS && lastDropLogAt.compareAndSet(last, now)) {
+            System.err.println("Journal " + file + ": dropping records (" + reason + "), " + dropped.sum() + " dropped so far");
+        }
+    }
+
+    private void writeLoop() {
+        List<JournalRecord> batch = new ArrayList<>(MAX_BATCH);
+        ByteBuffer buffer = ByteBuffer.allocate(256 * 1024);
+        CRC32 crc = new CRC32();
+
+        while (true) {
+            JournalRecord first;
+            try {
+                first = queue.poll(200, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                first = queue.poll();
+            }
+            if (first == null) {
+                if (running) {
+                    continue;
+                }
+                // An append may have landed between the poll and the running check
+                first = queue.poll();
+                if (first == null) {
+                    break;
+                }
+            }
+            batch.add(first);
+            queue.drainTo(batch, MAX_BATCH - 1);
+            buffer = writeBatch(batch, buffer, crc);
+            batch.clear();
+        }
+    }
+
+    /** Encodes and writes one batch with a single fsync; returns the (possibly grown) buffer. */
+    private ByteBuffer writeBatch(List<JournalRecord> batch, ByteBuffer buffer, CRC32 crc) {
+        int needed = 0;
+        for (JournalRecord record : batch) {
+            needed += JournalCodec.maxFrameSize(record);
+        }
+        if (buffer.capacity() < needed) {
+            buffer = ByteBuffer.allocate(needed);
+        }
+
+        buffer.clear();
+        for (JournalRecord record : batch) {
+            JournalCodec.encode(record, buffer, crc);
+        }
+        buffer.flip();
+
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            fsyncs.increment();
+            written.add(batch.size());
+        } catch (IOException e) {
+            System.err.println("Journal write failed, " + batch.size() + " records lost: " + e.getMessage());
+            dropped.add(batch.size());
+        }
+        return buffer;
+    }
+}
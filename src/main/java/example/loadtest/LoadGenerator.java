@@ -0,0 +1,238 @@
+package example.loadtest;
+
+import example.client.BackendClient;
+import org.telegram.telegrambots.meta.api.objects.Chat;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.User;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays a synthetic stream of Telegram updates against a StubTelegramBot at a target rate
+ * and reports throughput plus latency percentiles per command.
+ *
+ * Updates are scheduled open-loop: latency is measured from each update's intended send time,
+ * so a stalled worker pool shows up as queueing delay instead of silently lowering the rate.
+ *
+ * Usage: LoadGenerator [rate/s] [duration s] [workers] [backend latency ms] [jitter ms] [error rate] [recordings dir]
+ * Pass "-" as the recordings dir (or omit it) to use the built-in synthetic payloads.
+ * Set BACKEND_URL to drive a real backend instead of the local stand-in.
+ */
+public class LoadGenerator {
+
+    // Weighted command mix, roughly what the bot sees in production
+    private static final String[][] COMMAND_MIX = {
+            {"/trending", "30"},
+            {"/signals", "20"},
+            {"/advice 527000", "15"},
+            {"/markets", "10"},
+            {"/portfolio", "10"},
+            {"/papertrade 527000 yes 10", "10"},
+            {"/lang en", "5"},
+    };
+
+    private final StubTelegramBot bot;
+    private final int ratePerSecond;
+    private final int durationSeconds;
+    private final int workers;
+    private final int syntheticUsers;
+
+    private final Map<String, LatencyRecorder> recorders = new ConcurrentHashMap<>();
+    private final AtomicInteger nextUpdateId = new AtomicInteger(1);
+    private final LongAdder failures = new LongAdder();
+
+    public LoadGenerator(StubTelegramBot bot, int ratePerSecond, int durationSeconds, int workers, int syntheticUsers) {
+        this.bot = bot;
+        this.ratePerSecond = ratePerSecond;
+        this.durationSeconds = durationSeconds;
+        this.workers = workers;
+        this.syntheticUsers = syntheticUsers;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rate = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int duration = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int workers = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+        long latencyMs = args.length > 3 ? Long.parseLong(args[3]) : 20;
+        long jitterMs = args.length > 4 ? Long.parseLong(args[4]) : 30;
+        double errorRate = args.length > 5 ? Double.parseDouble(args[5]) : 0.01;
+        String recordings = args.length > 6 ? args[6] : "-";
+
+        String backendUrl = System.getenv("BACKEND_URL");
+        StubBackendServer stub = null;
+        ScheduledExecutorService churn = Executors.newSingleThreadScheduledExecutor();
+        if (backendUrl == null || backendUrl.isBlank()) {
+            stub = new StubBackendServer(0, latencyMs, jitterMs, errorRate);
+            if (!recordings.equals("-")) {
+                stub.loadRecordings(Path.of(recordings));
+            }
+            stub.start();
+            backendUrl = stub.baseUrl();
+
+            // Keep the market feed moving so delta syncs have something to apply
+            StubBackendServer feed = stub;
+            churn.scheduleAtFixedRate(() -> feed.mutateMarkets(3), 1, 1, TimeUnit.SECONDS);
+        }
+
+        System.out.println("Load test: " + rate + " updates/s for " + duration + "s, " + workers + " workers, backend " + backendUrl);
+        // Synthetic /papertrade and odds writes go to a throwaway dir, never the real data dir
+        Path dataDir = Files.createTempDirectory("nort-loadtest");
+        System.out.println("Load test data dir: " + dataDir);
+        StubTelegramBot bot = new StubTelegramBot(new BackendClient(backendUrl), dataDir);
+        bot.startBackgroundTasks();
+        try {
+            new LoadGenerator(bot, rate, duration, workers, 500).run().print();
+        } finally {
+            churn.shutdownNow();
+            if (stub != null) {
+                stub.stop();
+            }
+        }
+        System.exit(0);
+    }
+
+    public Report run() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long total = (long) ratePerSecond * durationSeconds;
+        long start = System.nanoTime();
+
+        for (long i = 0; i < total; i++) {
+            long intendedStart = start + i * intervalNanos;
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            String text = pickCommand();
+            Update update = syntheticUpdate(text);
+            pool.execute(() -> dispatch(update, commandName(text), intendedStart));
+        }
+
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - start;
+        return new Report(recorders, elapsed, failures.sum(), bot.getSentMethods());
+    }
+
+    private void dispatch(Update update, String command, long intendedStart) {
+        try {
+            bot.onUpdateReceived(update);
+        } catch (RuntimeException e) {
+            failures.increment();
+        }
+        recorders.computeIfAbsent(command, c -> new LatencyRecorder()).record(System.nanoTime() - intendedStart);
+    }
+
+    private String pickCommand() {
+        int totalWeight = 0;
+        for (String[] entry : COMMAND_MIX) {
+            totalWeight += Integer.parseInt(entry[1]);
+        }
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (String[] entry : COMMAND_MIX) {
+            roll -= Integer.parseInt(entry[1]);
+            if (roll < 0) {
+                return entry[0];
+            }
+        }
+        return COMMAND_MIX[0][0];
+    }
+
+    private Update syntheticUpdate(String text) {
+        long chatId = 1_000_000L + ThreadLocalRandom.current().nextInt(syntheticUsers);
+
+        Chat chat = new Chat(chatId, "private");
+        User from = new User(chatId, "Load", false);
+        from.setUserName("load_" + chatId);
+
+        Message message = new Message();
+        message.setMessageId(nextUpdateId.get());
+        message.setChat(chat);
+        message.setFrom(from);
+        message.setText(text);
+        message.setDate((int) (System.currentTimeMillis() / 1000));
+
+        Update update = new Update();
+        update.setUpdateId(nextUpdateId.getAndIncrement());
+        update.setMessage(message);
+        return update;
+    }
+
+    private static String commandName(String text) {
+        int space = text.indexOf(' ');
+        return space < 0 ? text : text.substring(0, space);
+    }
+
+    // ── Latency recording ─────────────────────────────────────────────────────
+
+    static class LatencyRecorder {
+        private long[] samples = new long[1024];
+        private int count = 0;
+
+        synchronized void record(long nanos) {
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, samples.length * 2);
+            }
+            samples[count++] = nanos;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(samples, count);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+
+    public static class Report {
+        private final Map<String, LatencyRecorder> recorders;
+        private final long elapsedNanos;
+        private final long failures;
+        private final long sentMethods;
+
+        Report(Map<String, LatencyRecorder> recorders, long elapsedNanos, long failures, long sentMethods) {
+            this.recorders = new TreeMap<>(recorders);
+            this.elapsedNanos = elapsedNanos;
+            this.failures = failures;
+            this.sentMethods = sentMethods;
+        }
+
+        public void print() {
+            double seconds = elapsedNanos / 1e9;
+            long processed = 0;
+
+            System.out.printf("%n%-14s %8s %9s %9s %9s %9s %9s%n", "command", "count", "rate/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+            for (Map.Entry<String, LatencyRecorder> entry : recorders.entrySet()) {
+                long[] sorted = entry.getValue().sorted();
+                processed += sorted.length;
+                System.out.printf("%-14s %8d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                        entry.getKey(), sorted.length, sorted.length / seconds,
+                        percentileMs(sorted, 0.50), percentileMs(sorted, 0.95),
+                        percentileMs(sorted, 0.99), percentileMs(sorted, 1.0));
+            }
+
+            System.out.printf("%nProcessed %d updates in %.1fs (%.1f updates/s), %d Telegram calls, %d handler failures%n",
+                    processed, seconds, processed / seconds, sentMethods, failures);
+        }
+
+        private static double percentileMs(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package example.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local stand-in for the Nort backend, used for load testing without touching onrender.
+ *
+ * Serves recorded JSON payloads keyed by route (the first path segment(s) of the request,
+ * e.g. "markets", "agent/advice", "telegram/permissions"). Every response is delayed by
+ * a base latency plus uniform jitter, and a configurable fraction of requests fail with 503
+ * so the bot's "backend waking up" paths get exercised too.
+ *
+ * Like the real backend behind a CDN, responses carry an ETag and honour If-None-Match, and
+ * are gzip-encoded when the client asks for it. Unless a recording overrides "markets", the
+ * market listing is generated from a versioned in-memory feed: {@link #mutateMarkets(int)}
+ * changes rows, and "/markets?since=<cursor>" returns only rows changed after that cursor.
+ */
+public class StubBackendServer {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, String> payloads = new ConcurrentHashMap<>();
+
+    // Versioned market feed backing /markets when no recording overrides it
+    private final Map<String, JSONObject> marketRows = new LinkedHashMap<>();
+    private final Map<String, Long> rowVersions = new LinkedHashMap<>();
+    private long marketVersion = 0;
+
+    private volatile long baseLatencyMs;
+    private volatile long jitterMs;
+    private volatile double errorRate;
+
+    public StubBackendServer(int port, long baseLatencyMs, long jitterMs, double errorRate) throws IOException {
+        this.baseLatencyMs = baseLatencyMs;
+        this.jitterMs = jitterMs;
+        this.errorRate = errorRate;
+        // Without TCP_NODELAY, Nagle plus delayed ACKs adds ~40ms per keep-alive response
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "stub-backend");
+            t.setDaemon(true);
+            return t;
+        });
+        this.server.setExecutor(executor);
+        this.server.createContext("/", this::handle);
+        loadDefaultPayloads();
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    // ── Configuration ─────────────────────────────────────────────────────────
+
+    public void setLatency(long baseLatencyMs, long jitterMs) {
+        this.baseLatencyMs = baseLatencyMs;
+        this.jitterMs = jitterMs;
+    }
+
+    public void setErrorRate(double errorRate) { this.errorRate = errorRate; }
+
+    public void putPayload(String route, String json) { payloads.put(route, json); }
+
+    /** Changes odds and volume of {@code count} random markets, bumping the feed version. */
+    public synchronized void mutateMarkets(int count) {
+        List<String> ids = new ArrayList<>(marketRows.keySet());
+        if (ids.isEmpty()) {
+            return;
+        }
+        marketVersion++;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < count; i++) {
+            String id = ids.get(random.nextInt(ids.size()));
+            JSONObject row = marketRows.get(id);
+            double odds = Math.max(0.01, Math.min(0.99, row.getDouble("current_odds") + random.nextDouble(-0.05, 0.05)));
+            row.put("current_odds", Math.round(odds * 100) / 100.0);
+            row.put("volume", row.getLong("volume") + random.nextInt(50_000));
+            rowVersions.put(id, marketVersion);
+        }
+    }
+
+    /**
+     * Loads recorded payloads from a directory. File names map to routes with "__" standing
+     * in for "/", so "agent__advice.json" overrides the "agent/advice" route.
+     */
+    public void loadRecordings(Path dir) throws IOException {
+        try (var files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(".json")) {
+                    continue;
+                }
+                String route = name.substring(0, name.length() - 5).replace("__", "/");
+                payloads.put(route, Files.readString(file, StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    // ── Request handling ──────────────────────────────────────────────────────
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            in.readAllBytes();
+        }
+
+        sleepLatency();
+
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            respond(exchange, 503, "{\"detail\":\"Service Unavailable\"}");
+            return;
+        }
+
+        String route = routeOf(exchange.getRequestURI().getPath());
+        String payload = route.equals("markets") && !payloads.containsKey("markets")
+                ? marketsPayload(queryParam(exchange, "since"))
+                : payloads.get(route);
+        if (payload == null) {
+            respond(exchange, 404, "{\"detail\":\"Not Found\"}");
+            return;
+        }
+
+        String etag = "\"" + Integer.toHexString(payload.hashCode()) + "\"";
+        if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.getResponseHeaders().set("ETag", etag);
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().set("ETag", etag);
+        respond(exchange, 200, payload);
+    }
+
+    private synchronized String marketsPayload(String since) {
+        long sinceVersion = -1;
+        if (since != null) {
+            try {
+                sinceVersion = Long.parseLong(since);
+            } catch (NumberFormatException ignored) {
+            }
+        }
+
+        JSONArray rows = new JSONArray();
+        for (Map.Entry<String, JSONObject> entry : marketRows.entrySet()) {
+            if (sinceVersion < 0 || rowVersions.get(entry.getKey()) > sinceVersion) {
+                rows.put(entry.getValue());
+            }
+        }
+
+        JSONObject body = new JSONObject();
+        body.put("cursor", String.valueOf(marketVersion));
+        body.put("markets", rows);
+        if (sinceVersion >= 0) {
+            body.put("delta", true);
+            body.put("removed", new JSONArray());
+        }
+        return body.toString();
+    }
+
+    private static String queryParam(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private String routeOf(String path) {
+        String trimmed = path.startsWith("/") ? path.substring(1) : path;
+        String[] segments = trimmed.split("/");
+        if (segments.length >= 2 && payloads.containsKey(segments[0] + "/" + segments[1])) {
+            return segments[0] + "/" + segments[1];
+        }
+        return segments[0];
+    }
+
+    private void sleepLatency() {
+        long delay = baseLatencyMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0);
+        if (delay <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(bytes);
+            }
+            bytes = compressed.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private void loadDefaultPayloads() {
+        for (int i = 0; i < 50; i++) {
+            String id = String.valueOf(527000 + i);
+            JSONObject row = new JSONObject();
+            row.put("id", id);
+            row.put("question", "Will synthetic market " + i + " resolve YES?");
+            row.put("volume", 1_000_000L - i * 10_000L);
+            row.put("current_odds", 0.30 + (i % 40) / 100.0);
+            row.put("expires_at", "2026-12-31 00:00:00");
+            row.put("category", "crypto");
+            marketRows.put(id, row);
+            rowVersions.put(id, 0L);
+        }
+
+        payloads.put("signals", "{\"signals\":[" +
+                "{\"market_id\":\"527000\",\"question\":\"Will synthetic market 0 resolve YES?\",\"score\":0.82,\"reason\":\"Volume spike\",\"volume\":1000000,\"current_odds\":0.30}," +
+                "{\"market_id\":\"527001\",\"question\":\"Will synthetic market 1 resolve YES?\",\"score\":0.64,\"reason\":\"Odds drift\",\"volume\":990000,\"current_odds\":0.31}]}");
+        payloads.put("agent/advice", "{\"market_id\":\"527000\",\"summary\":\"Synthetic summary.\",\"why_trending\":\"Synthetic trend.\"," +
+                "\"risk_factors\":[\"Synthetic risk\"],\"suggested_plan\":\"BUY YES\",\"confidence\":0.7,\"disclaimer\":\"This is not financial advice.\"}");
+        payloads.put("x402/verify", "{\"success\":true,\"verified\":true}");
+        payloads.put("papertrade", "{\"status\":\"filled\",\"shares\":100.0,\"price_per_share\":0.5}");
+        payloads.put("wallet", "{\"balance\":1000.0,\"positions\":[]}");
+        payloads.put("telegram/user", "{\"telegram_id\":\"0\",\"language\":\"en\"}");
+        payloads.put("telegram/preferences", "{\"telegram_id\":\"0\",\"language\":\"en\"}");
+        payloads.put("telegram/session", "{\"telegram_id\":\"0\"}");
+        payloads.put("telegram/permissions", "{\"auto_trade\":true,\"limit\":50.0}");
+        payloads.put("permissions", "{\"auto_trade\":true,\"limit\":50.0}");
+    }
+}
@@ -0,0 +1,50 @@
+package example.loadtest;
+
+import example.Bot;
+import example.client.BackendClient;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.send.SendPhoto;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bot whose Telegram `execute` calls go to an in-memory sink instead of api.telegram.org.
+ *
+ * Everything else — command routing, backend calls, parsing, rendering — is the real Bot,
+ * so load runs measure the same code path production uses.
+ */
+public class StubTelegramBot extends Bot {
+
+    private final LongAdder sentMethods = new LongAdder();
+
+    public StubTelegramBot(BackendClient backend, Path dataDir) {
+        super(backend, dataDir);
+    }
+
+    @Override
+    public String getBotToken() {
+        return "stub-token";
+    }
+
+    @Override
+    public <T extends Serializable, Method extends BotApiMethod<T>> T execute(Method method) throws TelegramApiException {
+        method.validate();
+        sentMethods.increment();
+        return null;
+    }
+
+    @Override
+    protected Message executePhoto(SendPhoto sendPhoto) throws TelegramApiException {
+        sendPhoto.validate();
+        sentMethods.increment();
+        return null;
+    }
+
+    public long getSentMethods() {
+        return sentMethods.sum();
+    }
+}
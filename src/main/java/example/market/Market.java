@@ -0,0 +1,92 @@
+package example.market;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable snapshot of one market row as returned by the backend's /markets endpoints.
+ */
+public final class Market {
+
+    private final String id;
+    private final String question;
+    private final double volume;
+    private final double currentOdds;
+    private final String expiresAt;
+    private final String category;
+
+    public Market(String id, String question, double volume, double currentOdds, String expiresAt, String category) {
+        this.id = id;
+        this.question = question;
+        this.volume = volume;
+        this.currentOdds = currentOdds;
+        this.expiresAt = expiresAt;
+        this.category = category;
+    }
+
+    public static Market fromJson(JSONObject json) {
+        return new Market(
+                json.optString("id", json.optString("market_id", "")),
+                json.optString("question", "Unknown"),
+                json.optDouble("volume", 0),
+                json.optDouble("current_odds", 0),
+                json.optString("expires_at", ""),
+                json.optString("category", ""));
+    }
+
+    /**
+     * Parses a /markets payload, which is either {"markets": [...]} or a bare array.
+     * Rows without an ID are skipped.
+     */
+    public static List<Market> parseList(String raw) {
+        String trimmed = raw == null ? "" : raw.trim();
+        JSONArray rows;
+        if (trimmed.startsWith("[")) {
+            rows = new JSONArray(trimmed);
+        } else {
+            rows = new JSONObject(trimmed).getJSONArray("markets");
+        }
+
+        List<Market> markets = new ArrayList<>(rows.length());
+        for (int i = 0; i < rows.length(); i++) {
+            Market market = fromJson(rows.getJSONObject(i));
+            if (!market.getId().isEmpty()) {
+                markets.add(market);
+            }
+        }
+        return markets;
+    }
+
+    public String getId()          { return id; }
+    public String getQuestion()    { return question; }
+    public double getVolume()      { return volume; }
+    public double getCurrentOdds() { return currentOdds; }
+    public String getExpiresAt()   { return expiresAt; }
+    public String getCategory()    { return category; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Market)) {
+            return false;
+        }
+        Market other = (Market) o;
+        return Double.compare(volume, other.volume) == 0
+                && Double.compare(currentOdds, other.currentOdds) == 0
+                && id.equals(other.id)
+                && question.equals(other.question)
+                && expiresAt.equals(other.expiresAt)
+                && category.equals(other.category);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, question, volume, currentOdds, expiresAt, category);
+    }
+}
@@ -0,0 +1,173 @@
+package example.market;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory prefix index over market questions, used to answer inline queries without a
+ * backend round trip per keystroke.
+ *
+ * Every word of a question is indexed under each of its prefixes (up to MAX_PREFIX chars),
+ * so "bitc" matches "Bitcoin". A query matches a market when every query word is a prefix of
+ * some word in its question; results are ranked by volume. Updates are incremental: the
+ * index is fed MarketTable changes, and only markets whose question changed are re-tokenized.
+ * Reads are lock-free against concurrent updates.
+ */
+public class MarketSearchIndex {
+
+    private static final int MAX_PREFIX = 12;
+
+    private final Map<String, Market> markets = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> postings = new ConcurrentHashMap<>();
+
+    public synchronized void upsertAll(Collection<Market> changed) {
+        for (Market market : changed) {
+            upsertLocked(market);
+        }
+    }
+
+    public synchronized void remove(String marketId) {
+        removeLocked(marketId);
+    }
+
+    public int size() {
+        return markets.size();
+    }
+
+    public Market get(String marketId) {
+        return markets.get(marketId);
+    }
+
+    /**
+     * Returns up to {@code limit} markets matching every word of the query, highest volume
+     * first. An empty query returns the highest-volume markets overall.
+     */
+    public List<Market> search(String query, int limit) {
+        List<String> words = tokenize(query);
+
+        Collection<String> candidates;
+        if (words.isEmpty()) {
+            candidates = markets.keySet();
+        } else {
+            // Walk the smallest posting list and probe the others
+            Set<String> smallest = null;
+            List<Set<String>> lists = new ArrayList<>(words.size());
+            for (String word : words) {
+                Set<String> list = postings.get(prefixKey(word));
+                if (list == null) {
+                    return List.of();
+                }
+                lists.add(list);
+                if (smallest == null || list.size() < smallest.size()) {
+                    smallest = list;
+                }
+            }
+            List<String> matched = new ArrayList<>();
+            for (String id : smallest) {
+                boolean all = true;
+                for (Set<String> list : lists) {
+                    if (list != smallest && !list.contains(id)) {
+                        all = false;
+                        break;
+                    }
+                }
+                if (all) {
+                    matched.add(id);
+                }
+            }
+            candidates = matched;
+        }
+
+        List<Market> results = new ArrayList<>(candidates.size());
+        for (String id : candidates) {
+            Market market = markets.get(id);
+            if (market != null) {
+                results.add(market);
+            }
+        }
+        results.sort((a, b) -> Double.compare(b.getVolume(), a.getVolume()));
+        return results.size() > limit ? results.subList(0, limit) : results;
+    }
+
+    // ── Index maintenance ─────────────────────────────────────────────────────
+
+    private void upsertLocked(Market market) {
+        Market previous = markets.put(market.getId(), market);
+        if (previous != null && previous.getQuestion().equals(market.getQuestion())) {
+            return;
+        }
+        if (previous != null) {
+            unindex(previous);
+        }
+        for (String prefix : prefixes(market.getQuestion())) {
+            postings.computeIfAbsent(prefix, p -> ConcurrentHashMap.newKeySet()).add(market.getId());
+        }
+        // Market IDs are searchable too, so pasting an ID finds its market
+        for (String prefix : prefixes(market.getId())) {
+            postings.computeIfAbsent(prefix, p -> ConcurrentHashMap.newKeySet()).add(market.getId());
+        }
+    }
+
+    private void removeLocked(String marketId) {
+        Market previous = markets.remove(marketId);
+        if (previous != null) {
+            unindex(previous);
+        }
+    }
+
+    private void unindex(Market market) {
+        Set<String> keys = prefixes(market.getQuestion());
+        keys.addAll(prefixes(market.getId()));
+        for (String prefix : keys) {
+            Set<String> list = postings.get(prefix);
+            if (list == null) {
+                continue;
+            }
+            list.remove(market.getId());
+            if (list.isEmpty()) {
+                postings.remove(prefix, list);
+            }
+        }
+    }
+
+    private static Set<String> prefixes(String text) {
+        Set<String> prefixes = new HashSet<>();
+        for (String word : tokenize(text)) {
+            int max = Math.min(word.length(), MAX_PREFIX);
+            for (int len = 1; len <= max; len++) {
+                prefixes.add(word.substring(0, len));
+            }
+        }
+        return prefixes;
+    }
+
+    private static String prefixKey(String word) {
+        return word.length() > MAX_PREFIX ? word.substring(0, MAX_PREFIX) : word;
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else if (current.length() > 0) {
+                words.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) {
+            words.add(current.toString());
+        }
+        return words;
+    }
+}
@@ -0,0 +1,146 @@
+package example.market;
+
+import example.client.BackendClient;
+import example.client.ConditionalResponse;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local replica of the backend's market listing.
+ *
+ * Each sync revalidates /markets with the last ETag/Last-Modified; a 304 costs no download
+ * and no parsing. When the backend supports deltas it only sends markets changed since our
+ * cursor, and only those rows are applied. Full listings are diffed against the replica so
+ * downstream consumers (search index, signal engine) still only see what actually changed.
+ */
+public class MarketTable {
+
+    /** What a sync changed; empty when the backend answered 304 or nothing differed. */
+    public static final class Change {
+        private final List<Market> changed;
+        private final List<String> removed;
+
+        Change(List<Market> changed, List<String> removed) {
+            this.changed = changed;
+            this.removed = removed;
+        }
+
+        public List<Market> getChanged() { return changed; }
+        public List<String> getRemoved() { return removed; }
+        public boolean isEmpty()         { return changed.isEmpty() && removed.isEmpty(); }
+    }
+
+    private static final Change NO_CHANGE = new Change(List.of(), List.of());
+
+    private final BackendClient backend;
+    private final Map<String, Market> markets = new ConcurrentHashMap<>();
+    private volatile String cursor = null;
+
+    public MarketTable(BackendClient backend) {
+        this.backend = backend;
+    }
+
+    public Market get(String marketId) {
+        return markets.get(marketId);
+    }
+
+    public Collection<Market> all() {
+        return markets.values();
+    }
+
+    public int size() {
+        return markets.size();
+    }
+
+    /**
+     * Pulls the latest listing (or delta) from the backend and applies it. The cursor only
+     * advances once the rows it covers have been applied, so a failed sync is simply retried.
+     */
+    public synchronized Change sync() {
+        ConditionalResponse response = backend.getMarketsSince(cursor);
+        if (!response.isModified()) {
+            return NO_CHANGE;
+        }
+
+        String trimmed = response.getBody() == null ? "" : response.getBody().trim();
+        String preview = trimmed.substring(0, Math.min(120, trimmed.length()));
+        if (!response.isSuccessful()) {
+            throw new IllegalStateException("Markets sync failed with HTTP " + response.getCode() + ": " + preview);
+        }
+        if (!trimmed.startsWith("{") && !trimmed.startsWith("[")) {
+            throw new IllegalStateException("Unexpected markets payload: " + preview);
+        }
+
+        if (trimmed.startsWith("{")) {
+            JSONObject json = new JSONObject(trimmed);
+            if (json.optBoolean("delta", false)) {
+                return applyDelta(json);
+            }
+            String next = json.optString("cursor", null);
+            Change change = applyFull(Market.parseList(trimmed));
+            cursor = next;
+            return change;
+        }
+        return applyFull(Market.parseList(trimmed));
+    }
+
+    private Change applyDelta(JSONObject json) {
+        // Parse every row before touching the replica, so a bad row leaves it as it was
+        List<Market> rows = new ArrayList<>();
+        JSONArray rowsJson = json.optJSONArray("markets");
+        if (rowsJson != null) {
+            for (int i = 0; i < rowsJson.length(); i++) {
+                rows.add(Market.fromJson(rowsJson.getJSONObject(i)));
+            }
+        }
+
+        List<Market> changed = new ArrayList<>();
+        for (Market market : rows) {
+            if (!market.getId().isEmpty() && !market.equals(markets.put(market.getId(), market))) {
+                changed.add(market);
+            }
+        }
+
+        List<String> removed = new ArrayList<>();
+        JSONArray removedIds = json.optJSONArray("removed");
+        if (removedIds != null) {
+            for (int i = 0; i < removedIds.length(); i++) {
+                String id = removedIds.optString(i, "");
+                if (markets.remove(id) != null) {
+                    removed.add(id);
+                }
+            }
+        }
+
+        cursor = json.optString("cursor", cursor);
+        return new Change(changed, removed);
+    }
+
+    private Change applyFull(List<Market> latest) {
+        Set<String> seen = new HashSet<>();
+        List<Market> changed = new ArrayList<>();
+        for (Market market : latest) {
+            seen.add(market.getId());
+            if (!market.equals(markets.put(market.getId(), market))) {
+                changed.add(market);
+            }
+        }
+
+        List<String> removed = new ArrayList<>();
+        for (String id : new ArrayList<>(markets.keySet())) {
+            if (!seen.contains(id)) {
+                markets.remove(id);
+                removed.add(id);
+            }
+        }
+        return new Change(changed, removed);
+    }
+}
@@ -0,0 +1,232 @@
+package example.market;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-market odds/volume time series kept in fixed-size ring buffers inside one memory-mapped file.
+ *
+ * The file is a small header followed by SLOT_COUNT slots. Each slot holds a market ID, a
+ * running append counter, the last write time and RING_SIZE entries of (time, odds, volume).
+ * Each ring keeps at most one entry per SPACING_MILLIS bucket: an observation in the same
+ * bucket as the newest entry replaces it. However often a market is observed, a ring therefore
+ * covers RING_SIZE * SPACING_MILLIS (a little over 25 hours).
+ * Writes go straight into the mapping, so they survive a process crash without any explicit
+ * save; {@link #flush()} additionally forces them to disk for machine crashes.
+ *
+ * Appends to a known market allocate nothing. Range reads walk backwards from the newest entry
+ * and stop at the first one older than the requested start, so they are O(window). When all
+ * slots are taken, the market written least recently gives up its slot.
+ */
+public class OddsHistoryStore implements AutoCloseable {
+
+    private static final int MAGIC = 0x4E4F5254; // "NORT"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+
+    private static final int SLOT_COUNT = 1024;
+
+    /** Most entries one market keeps, and so the most a single {@link #read} can return. */
+    public static final int RING_SIZE = 512;
+    /** Resolution of the stored series; 512 three-minute buckets span 25.6 hours. */
+    public static final long SPACING_MILLIS = 3 * 60 * 1000L;
+    private static final int ID_BYTES = 64;
+    private static final int ENTRY_BYTES = 24;
+    private static final int SLOT_HEADER_BYTES = ID_BYTES + 16;
+    private static final int SLOT_BYTES = SLOT_HEADER_BYTES + RING_SIZE * ENTRY_BYTES;
+
+    // Offsets within a slot
+    private static final int OFF_COUNTER = ID_BYTES;
+    private static final int OFF_LAST_WRITE = ID_BYTES + 8;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final Map<String, Integer> slotsById = new HashMap<>();
+
+    public OddsHistoryStore(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        long size = HEADER_BYTES + (long) SLOT_COUNT * SLOT_BYTES;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean fresh = channel.size() != size;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (fresh || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION
+                || buffer.getInt(8) != SLOT_COUNT || buffer.getInt(12) != RING_SIZE) {
+            initialize();
+        } else {
+            loadSlots();
+        }
+    }
+
+    /**
+     * Records one observation, replacing the newest entry if it falls in the same spacing bucket.
+     * Allocation-free for markets that already own a slot.
+     */
+    public synchronized void append(String marketId, long timeMillis, double odds, double volume) {
+        Integer slot = slotsById.get(marketId);
+        if (slot == null) {
+            slot = claimSlot(marketId);
+            if (slot < 0) {
+                return;
+            }
+        }
+        int base = slotBase(slot);
+        long counter = buffer.getLong(base + OFF_COUNTER);
+        if (counter > 0) {
+            int newest = base + SLOT_HEADER_BYTES + (int) ((counter - 1) % RING_SIZE) * ENTRY_BYTES;
+            if (timeMillis / SPACING_MILLIS <= buffer.getLong(newest) / SPACING_MILLIS) {
+                // Same bucket: keep the latest values under the newest time
+                buffer.putDouble(newest + 8, odds);
+                buffer.putDouble(newest + 16, volume);
+                buffer.putLong(newest, Math.max(timeMillis, buffer.getLong(newest)));
+                buffer.putLong(base + OFF_LAST_WRITE, timeMillis);
+                return;
+            }
+        }
+        int entry = base + SLOT_HEADER_BYTES + (int) (counter % RING_SIZE) * ENTRY_BYTES;
+        buffer.putLong(entry, timeMillis);
+        buffer.putDouble(entry + 8, odds);
+        buffer.putDouble(entry + 16, volume);
+        buffer.putLong(base + OFF_LAST_WRITE, timeMillis);
+        // Counter last, so a crash mid-append leaves the previous entries consistent
+        buffer.putLong(base + OFF_COUNTER, counter + 1);
+    }
+
+    /**
+     * Copies entries at or after {@code fromMillis} into the given arrays in chronological order
+     * and returns how many were copied (at most the arrays' length, keeping the newest).
+     */
+    public synchronized int read(String marketId, long fromMillis, long[] times, double[] odds, double[] volumes) {
+        Integer slot = slotsById.get(marketId);
+        if (slot == null) {
+            return 0;
+        }
+        int base = slotBase(slot);
+        long counter = buffer.getLong(base + OFF_COUNTER);
+        int available = (int) Math.min(counter, RING_SIZE);
+        int max = Math.min(times.length, Math.min(odds.length, volumes.length));
+
+        // Walk newest to oldest, then reverse in place
+        int n = 0;
+        for (int i = 0; i < available && n < max; i++) {
+            int entry = base + SLOT_HEADER_BYTES + (int) ((counter - 1 - i) % RING_SIZE) * ENTRY_BYTES;
+            long t = buffer.getLong(entry);
+            if (t < fromMillis) {
+                break;
+            }
+            times[n] = t;
+            odds[n] = buffer.getDouble(entry + 8);
+            volumes[n] = buffer.getDouble(entry + 16);
+            n++;
+        }
+        for (int i = 0, j = n - 1; i < j; i++, j--) {
+            long t = times[i]; times[i] = times[j]; times[j] = t;
+            double o = odds[i]; odds[i] = odds[j]; odds[j] = o;
+            double v = volumes[i]; volumes[i] = volumes[j]; volumes[j] = v;
+        }
+        return n;
+    }
+
+    public synchronized void flush() {
+        buffer.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    // ── Slot management ───────────────────────────────────────────────────────
+
+    private void initialize() {
+        buffer.putInt(0, 0);
+        // Only slot headers need clearing; ring contents are ignored until the counter covers them
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            int base = slotBase(slot);
+            buffer.putShort(base, (short) 0);
+            buffer.putLong(base + OFF_COUNTER, 0);
+            buffer.putLong(base + OFF_LAST_WRITE, 0);
+        }
+        buffer.putInt(4, FORMAT_VERSION);
+        buffer.putInt(8, SLOT_COUNT);
+        buffer.putInt(12, RING_SIZE);
+        buffer.putInt(0, MAGIC);
+        slotsById.clear();
+    }
+
+    private void loadSlots() {
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            String id = readId(slot);
+            if (id != null) {
+                slotsById.put(id, slot);
+            }
+        }
+    }
+
+    private int claimSlot(String marketId) {
+        byte[] idBytes = marketId.getBytes(StandardCharsets.UTF_8);
+        if (idBytes.length == 0 || idBytes.length > ID_BYTES - 2) {
+            return -1;
+        }
+
+        int victim = -1;
+        long oldestWrite = Long.MAX_VALUE;
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            int base = slotBase(slot);
+            if (buffer.getShort(base) == 0) {
+                victim = slot;
+                break;
+            }
+            long lastWrite = buffer.getLong(base + OFF_LAST_WRITE);
+            if (lastWrite < oldestWrite) {
+                oldestWrite = lastWrite;
+                victim = slot;
+            }
+        }
+
+        String evicted = readId(victim);
+        if (evicted != null) {
+            slotsById.remove(evicted);
+        }
+
+        int base = slotBase(victim);
+        int length = idBytes.length;
+        buffer.putLong(base + OFF_COUNTER, 0);
+        buffer.putLong(base + OFF_LAST_WRITE, 0);
+        for (int i = 0; i < length; i++) {
+            buffer.put(base + 2 + i, idBytes[i]);
+        }
+        buffer.putShort(base, (short) length);
+
+        slotsById.put(marketId, victim);
+        return victim;
+    }
+
+    private String readId(int slot) {
+        int base = slotBase(slot);
+        int length = buffer.getShort(base);
+        if (length <= 0 || length > ID_BYTES - 2) {
+            return null;
+        }
+        byte[] idBytes = new byte[length];
+        buffer.get(base + 2, idBytes);
+        return new String(idBytes, StandardCharsets.UTF_8);
+    }
+
+    private static int slotBase(int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+}
@@ -0,0 +1,176 @@
+package example.market;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * In-process momentum scoring over market snapshots, so /signals can be served from memory.
+ *
+ * Each market keeps a sliding window of (time, volume, odds) samples, plus the last sample
+ * from before the window as its baseline: a market that was flat and then jumps has only one
+ * sample inside the window. A market is only re-scored when it changes or when samples fall
+ * out of its window, and scored markets live in an ordered set (score desc) that acts as the top-K heap: updates are O(log n), and
+ * reading the top K — optionally filtered by category — walks only the head of the set.
+ *
+ * Score is in [0, 1) like the backend's: 1 - exp(-(VOLUME_WEIGHT * volume growth +
+ * ODDS_WEIGHT * |odds move|)) over the window.
+ */
+public class SignalEngine {
+
+    private static final int MAX_SAMPLES = 128;
+    private static final double VOLUME_WEIGHT = 5.0;
+    private static final double ODDS_WEIGHT = 10.0;
+
+    /** A scored market, as rendered by /signals. */
+    public static final class Signal {
+        private final Market market;
+        private final double score;
+        private final double volumeGrowth;
+        private final double oddsMove;
+
+        Signal(Market market, double score, double volumeGrowth, double oddsMove) {
+            this.market = market;
+            this.score = score;
+            this.volumeGrowth = volumeGrowth;
+            this.oddsMove = oddsMove;
+        }
+
+        public Market getMarket()       { return market; }
+        public double getScore()        { return score; }
+        public double getVolumeGrowth() { return volumeGrowth; }
+        public double getOddsMove()     { return oddsMove; }
+    }
+
+    /** Fixed-size ring of samples for one market. */
+    private static final class Window {
+        final long[] times = new long[MAX_SAMPLES];
+        final double[] volumes = new double[MAX_SAMPLES];
+        final double[] odds = new double[MAX_SAMPLES];
+        int head = 0;   // index of oldest sample
+        int count = 0;
+        Market latest;
+        Signal signal;
+
+        void add(long time, Market market) {
+            int slot = (head + count) % MAX_SAMPLES;
+            if (count == MAX_SAMPLES) {
+                head = (head + 1) % MAX_SAMPLES;
+            } else {
+                count++;
+            }
+            times[slot] = time;
+            volumes[slot] = market.getVolume();
+            odds[slot] = market.getCurrentOdds();
+            latest = market;
+        }
+
+        /**
+         * Drops samples the window no longer needs. Samples only arrive when a market changes, so
+         * the newest one at or before the cutoff is the market's value at the window start and
+         * stays as the base. Returns whether any were dropped.
+         */
+        boolean evictBefore(long cutoff) {
+            boolean evicted = false;
+            while (count > 1 && times[(head + 1) % MAX_SAMPLES] <= cutoff) {
+                head = (head + 1) % MAX_SAMPLES;
+                count--;
+                evicted = true;
+            }
+            return evicted;
+        }
+
+        long oldestTime() {
+            return times[head];
+        }
+
+        int newest() {
+            return (head + count - 1) % MAX_SAMPLES;
+        }
+    }
+
+    private static final Comparator<Signal> BY_SCORE = Comparator
+            .comparingDouble(Signal::getScore).reversed()
+            .thenComparing(s -> s.getMarket().getId());
+
+    private final long windowMillis;
+    private final Map<String, Window> windows = new HashMap<>();
+    private final TreeSet<Signal> ranked = new TreeSet<>(BY_SCORE);
+    private boolean warm = false;
+
+    public SignalEngine(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Applies one snapshot: changed markets get a new sample and are re-scored, removed markets
+     * leave the ranking, and markets whose oldest samples aged out of the window are re-scored.
+     */
+    public synchronized void onSnapshot(long now, Collection<Market> changed, Collection<String> removed) {
+        for (String id : removed) {
+            Window window = windows.remove(id);
+            if (window != null && window.signal != null) {
+                ranked.remove(window.signal);
+            }
+        }
+
+        for (Market market : changed) {
+            Window window = windows.computeIfAbsent(market.getId(), id -> new Window());
+            if (window.count > 0) {
+                warm = true;
+            }
+            window.add(now, market);
+            window.evictBefore(now - windowMillis);
+            rescore(window);
+        }
+
+        long cutoff = now - windowMillis;
+        for (Window window : windows.values()) {
+            if (window.count > 1 && window.oldestTime() < cutoff && window.evictBefore(cutoff)) {
+                rescore(window);
+            }
+        }
+    }
+
+    /** True once at least one market has two samples, i.e. scores reflect actual movement. */
+    public synchronized boolean isWarm() {
+        return warm;
+    }
+
+    /** Returns up to {@code k} top signals with a positive score, optionally limited to one category. */
+    public synchronized List<Signal> top(int k, String category) {
+        List<Signal> result = new ArrayList<>(k);
+        Iterator<Signal> it = ranked.iterator();
+        while (it.hasNext() && result.size() < k) {
+            Signal signal = it.next();
+            if (signal.getScore() <= 0) {
+                break;
+            }
+            if (category == null || category.equalsIgnoreCase(signal.getMarket().getCategory())) {
+                result.add(signal);
+            }
+        }
+        return result;
+    }
+
+    private void rescore(Window window) {
+        if (window.signal != null) {
+            ranked.remove(window.signal);
+        }
+
+        int oldest = window.head;
+        int newest = window.newest();
+        double baseVolume = window.volumes[oldest];
+        double volumeGrowth = baseVolume > 0 ? Math.max(0, window.volumes[newest] - baseVolume) / baseVolume : 0;
+        double oddsMove = window.odds[newest] - window.odds[oldest];
+        double score = 1 - Math.exp(-(VOLUME_WEIGHT * volumeGrowth + ODDS_WEIGHT * Math.abs(oddsMove)));
+
+        window.signal = new Signal(window.latest, score, volumeGrowth, oddsMove);
+        ranked.add(window.signal);
+    }
+}
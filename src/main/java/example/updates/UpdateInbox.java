@@ -0,0 +1,256 @@
+package example.updates;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Durable store for fetched updates: the getUpdates offset, the updates themselves, and the
+ * IDs of those already handled.
+ *
+ * Telegram forgets an update as soon as a later getUpdates asks for a higher offset, so every
+ * batch is appended to the inbox log and fsynced, and only then is the new offset stored
+ * (write temp, fsync, rename). The receiver can therefore poll from the highest update it has
+ * seen while earlier ones are still running. Handled IDs go to a small side log; after a crash
+ * the inbox entries not listed there are handed back by {@link #pending()}.
+ *
+ * {@link #compact} rewrites the inbox with just the unfinished updates, which keeps both logs
+ * down to the updates currently in flight.
+ */
+public class UpdateInbox implements AutoCloseable {
+
+    private static final int FRAME_HEADER_BYTES = 8;   // [length:i32][crc32:i32]
+    // Far above any real update; a larger length can only be a damaged header
+    private static final int MAX_UPDATE_BYTES = 1 << 20;
+
+    private static final ObjectMapper JSON = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final Path offsetFile;
+    private final Path offsetTemp;
+    private final Path inboxFile;
+    private final Path inboxTemp;
+    private final Path processedFile;
+    private FileChannel inbox;
+    private FileChannel processedLog;
+    private final ByteBuffer idBuffer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+    private final CRC32 crc = new CRC32();
+    private final Set<Integer> processed = new HashSet<>();
+    private final List<Update> pending = new ArrayList<>();
+    private final long initialOffset;
+
+    public UpdateInbox(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        this.offsetFile = directory.resolve("update-offset");
+        this.offsetTemp = directory.resolve("update-offset.tmp");
+        this.inboxFile = directory.resolve("update-inbox.bin");
+        this.inboxTemp = directory.resolve("update-inbox.tmp");
+        this.processedFile = directory.resolve("update-processed.bin");
+        this.initialOffset = readOffset();
+
+        this.processedLog = FileChannel.open(processedFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // A torn 4-byte write can only be the last one; drop it
+        long whole = processedLog.size() & ~3L;
+        processedLog.truncate(whole);
+        processedLog.position(whole);
+        ByteBuffer ids = ByteBuffer.allocate((int) whole).order(ByteOrder.LITTLE_ENDIAN);
+        processedLog.read(ids, 0);
+        ids.flip();
+        while (ids.remaining() >= 4) {
+            processed.add(ids.getInt());
+        }
+
+        this.inbox = FileChannel.open(inboxFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        readInbox();
+    }
+
+    /** The offset to poll from, or 0 (meaning "whatever Telegram has") if none was saved yet. */
+    public long loadOffset() {
+        return initialOffset;
+    }
+
+    /** Updates fetched by an earlier run that were never recorded as handled, in fetch order. */
+    public List<Update> pending() {
+        return List.copyOf(pending);
+    }
+
+    /**
+     * Durably appends a fetched batch, then stores the offset of the next poll. The offset only
+     * moves once the updates are safe on disk, so a failure here leaves them with Telegram.
+     */
+    public synchronized void append(List<Update> batch, long nextOffset) throws IOException {
+        if (!batch.isEmpty()) {
+            long start = inbox.position();
+            try {
+                for (Update update : batch) {
+                    writeFrame(inbox, update);
+                }
+                inbox.force(false);
+            } catch (IOException e) {
+                // Leave no half-written batch behind for the next append to follow
+                inbox.truncate(start);
+                inbox.position(start);
+                throw e;
+            }
+        }
+        try (FileChannel temp = FileChannel.open(offsetTemp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            temp.write(ByteBuffer.wrap(Long.toString(nextOffset).getBytes(StandardCharsets.US_ASCII)));
+            temp.force(true);
+        }
+        Files.move(offsetTemp, offsetFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /** True if the update was recorded as handled and is still in the inbox. */
+    public synchronized boolean isProcessed(int updateId) {
+        return processed.contains(updateId);
+    }
+
+    /**
+     * Records one handled update. Written to the page cache only, which survives a process
+     * crash; losing it to a power cut only means the update is handled again.
+     */
+    public synchronized void markProcessed(int updateId) {
+        if (!processed.add(updateId)) {
+            return;
+        }
+        idBuffer.clear();
+        idBuffer.putInt(updateId).flip();
+        try {
+            while (idBuffer.hasRemaining()) {
+                processedLog.write(idBuffer);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to record processed update " + updateId + ": " + e.getMessage());
+        }
+    }
+
+    /** Bytes in the inbox log, for deciding when to {@link #compact}. */
+    public synchronized long size() throws IOException {
+        return inbox.size();
+    }
+
+    /**
+     * Replaces the inbox with only the given unfinished updates (write temp, fsync, rename) and
+     * forgets handled IDs that are no longer in it. Updates that finish while this runs are
+     * still in {@code unfinished}, so their handled marks are kept.
+     */
+    public synchronized void compact(Collection<Update> unfinished) throws IOException {
+        Set<Integer> kept = new HashSet<>();
+        try (FileChannel temp = FileChannel.open(inboxTemp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (Update update : unfinished) {
+                writeFrame(temp, update);
+                kept.add(update.getUpdateId());
+            }
+            temp.force(true);
+        }
+        inbox.close();
+        Files.move(inboxTemp, inboxFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        inbox = FileChannel.open(inboxFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        inbox.position(inbox.size());
+
+        processed.retainAll(kept);
+        // Overwrite in place, then cut: at every point the file lists only handled IDs
+        ByteBuffer remaining = ByteBuffer.allocate(processed.size() * 4).order(ByteOrder.LITTLE_ENDIAN);
+        for (int id : processed) {
+            remaining.putInt(id);
+        }
+        remaining.flip();
+        processedLog.position(0);
+        while (remaining.hasRemaining()) {
+            processedLog.write(remaining);
+        }
+        processedLog.truncate(processedLog.position());
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            inbox.close();
+        } finally {
+            processedLog.close();
+        }
+    }
+
+    private void writeFrame(FileChannel channel, Update update) throws IOException {
+        byte[] payload = JSON.writeValueAsBytes(update);
+        crc.reset();
+        crc.update(payload);
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_BYTES + payload.length);
+        frame.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+    }
+
+    // Loads unhandled updates; stops at the first damaged frame, which a crash can only leave at the end
+    private void readInbox() throws IOException {
+        long size = inbox.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_BYTES);
+        while (position + FRAME_HEADER_BYTES <= size) {
+            header.clear();
+            inbox.read(header, position);
+            int length = header.getInt(0);
+            int expected = header.getInt(4);
+            if (length <= 0 || length > MAX_UPDATE_BYTES || position + FRAME_HEADER_BYTES + length > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            inbox.read(payload, position + FRAME_HEADER_BYTES);
+            crc.reset();
+            crc.update(payload.array());
+            if ((int) crc.getValue() != expected) {
+                break;
+            }
+            try {
+                Update update = JSON.readValue(payload.array(), Update.class);
+                if (!processed.contains(update.getUpdateId())) {
+                    pending.add(update);
+                }
+            } catch (IOException e) {
+                System.err.println("Skipping unreadable update in inbox: " + e.getMessage());
+            }
+            position += FRAME_HEADER_BYTES + length;
+        }
+        if (position < size) {
+            System.err.println("Update inbox damaged at byte " + position + " of " + size
+                    + "; dropping the rest");
+            inbox.truncate(position);
+        }
+        inbox.position(position);
+    }
+
+    private long readOffset() {
+        try {
+            if (!Files.exists(offsetFile)) {
+                return 0;
+            }
+            return Long.parseLong(Files.readString(offsetFile, StandardCharsets.US_ASCII).trim());
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Ignoring unreadable update offset: " + e.getMessage());
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package example.updates;
+
+import org.telegram.telegrambots.bots.TelegramLongPollingBot;
+import org.telegram.telegrambots.meta.api.methods.updates.GetUpdates;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Long-polling replacement for DefaultBotSession with a durable inbox and parallel handling.
+ *
+ * The poller never waits for handlers. Each getUpdates is a true long poll from one past the
+ * highest update_id seen so far; the batch is written to the {@link UpdateInbox} before the
+ * offset moves, because asking for a higher offset is what makes Telegram drop the earlier
+ * updates. How many updates can be outstanding is limited only by memory, not by MAX_BATCH.
+ *
+ * Each chat has its own queue, so one chat's updates run in order while different chats run
+ * concurrently on the worker pool, and a slow /advice only holds up its own chat.
+ *
+ * Delivery is at-least-once. Handled updates are recorded in the inbox, and after a crash the
+ * ones that never finished are queued again before polling resumes. An update whose handler
+ * throws an Error is retried up to MAX_ATTEMPTS times, then logged and acknowledged so it
+ * cannot wedge its chat.
+ */
+public class UpdateReceiver implements AutoCloseable {
+
+    private static final int MAX_BATCH = 100;          // Telegram's upper limit
+    private static final int POLL_TIMEOUT_SECONDS = 50;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+    private static final int MAX_ATTEMPTS = 3;
+    // Rewrite the inbox once it holds this much, even if some updates are still running
+    private static final long COMPACT_BYTES = 4L << 20;
+
+    /** Updates of one chat waiting to run, drained by at most one worker at a time. */
+    private static final class ChatQueue {
+        final ArrayDeque<Update> updates = new ArrayDeque<>();
+        boolean draining;
+    }
+
+    private final TelegramLongPollingBot bot;
+    private final UpdateInbox inbox;
+    private final ExecutorService workers;
+    private final Thread poller;
+    private final LongAdder handled = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+    private volatile boolean running = true;
+
+    // Guarded by this; unfinished is in fetch order so a compacted inbox replays in order
+    private final Map<Integer, Update> unfinished = new LinkedHashMap<>();
+    private final Map<Integer, Integer> failures = new HashMap<>();
+    private final Map<Long, ChatQueue> chats = new HashMap<>();
+    // Poller thread only
+    private long highestSeen;
+
+    public UpdateReceiver(TelegramLongPollingBot bot, UpdateInbox inbox, int workerThreads) {
+        this.bot = bot;
+        this.inbox = inbox;
+        this.highestSeen = inbox.loadOffset() - 1;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerThreads, r -> {
+            Thread t = new Thread(r, "update-worker-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.poller = new Thread(this::pollLoop, "update-receiver");
+    }
+
+    /**
+     * Removes any webhook (getUpdates is refused while one is set), queues the updates an
+     * earlier run left unfinished, and starts polling.
+     */
+    public void start() throws TelegramApiException {
+        bot.clearWebhook();
+        List<Update> pending = inbox.pending();
+        if (!pending.isEmpty()) {
+            System.err.println("Resuming " + pending.size() + " unfinished updates from the inbox");
+        }
+        for (Update update : pending) {
+            dispatch(update);
+        }
+        poller.start();
+    }
+
+    public long getHandled() { return handled.sum(); }
+    public long getSkipped() { return skipped.sum(); }
+    public long getAbandoned() { return abandoned.sum(); }
+
+    /** Stops polling, lets queued updates finish, and compacts the inbox down to what is left. */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            poller.join(TimeUnit.SECONDS.toMillis(POLL_TIMEOUT_SECONDS + 10));
+            workers.shutdown();
+            workers.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        compact();
+        try {
+            inbox.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close update inbox: " + e.getMessage());
+        }
+    }
+
+    private void pollLoop() {
+        long backoff = 500;
+        while (running) {
+            long offset = highestSeen + 1;
+            List<Update> batch;
+            try {
+                batch = bot.execute(GetUpdates.builder()
+                        .offset((int) offset)
+                        .limit(MAX_BATCH)
+                        .timeout(POLL_TIMEOUT_SECONDS)
+                        .build());
+            } catch (TelegramApiException e) {
+                System.err.println("getUpdates failed, retrying in " + backoff + "ms: " + e.getMessage());
+                sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+                continue;
+            }
+            if (batch == null || batch.isEmpty()) {
+                backoff = 500;
+                compactIfDue();
+                continue;
+            }
+
+            List<Update> fresh = new ArrayList<>(batch.size());
+            long highest = highestSeen;
+            for (Update update : batch) {
+                int id = update.getUpdateId();
+                highest = Math.max(highest, id);
+                if (id < offset || isKnown(id)) {
+                    skipped.increment();
+                } else {
+                    fresh.add(update);
+                }
+            }
+            try {
+                inbox.append(fresh, highest + 1);
+                backoff = 500;
+            } catch (IOException e) {
+                // The offset did not move, so Telegram still holds the batch for the next poll
+                System.err.println("Failed to store update batch, retrying in " + backoff + "ms: " + e.getMessage());
+                sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+                continue;
+            }
+            highestSeen = highest;
+            for (Update update : fresh) {
+                dispatch(update);
+            }
+            compactIfDue();
+        }
+    }
+
+    private synchronized boolean isKnown(int updateId) {
+        return unfinished.containsKey(updateId) || inbox.isProcessed(updateId);
+    }
+
+    /** Queues the update on its chat. */
+    private synchronized void dispatch(Update update) {
+        unfinished.put(update.getUpdateId(), update);
+        enqueue(update);
+    }
+
+    private synchronized void enqueue(Update update) {
+        long key = chatKey(update);
+        ChatQueue queue = chats.computeIfAbsent(key, k -> new ChatQueue());
+        queue.updates.add(update);
+        if (!queue.draining && !workers.isShutdown()) {
+            queue.draining = true;
+            workers.execute(() -> drain(key, queue));
+        }
+    }
+
+    private void drain(long key, ChatQueue queue) {
+        Update update;
+        while ((update = next(key, queue)) != null) {
+            boolean acknowledged = false;
+            try {
+                handle(update);
+                acknowledged = true;
+            } finally {
+                finish(update, acknowledged);
+                if (!acknowledged) {
+                    // An Error is escaping this worker; hand the rest of the chat to a fresh task
+                    resume(key, queue);
+                }
+            }
+        }
+    }
+
+    private synchronized Update next(long key, ChatQueue queue) {
+        Update update = queue.updates.poll();
+        if (update == null) {
+            queue.draining = false;
+            chats.remove(key, queue);
+        }
+        return update;
+    }
+
+    private synchronized void resume(long key, ChatQueue queue) {
+        if (queue.updates.isEmpty()) {
+            queue.draining = false;
+            chats.remove(key, queue);
+        } else if (!workers.isShutdown()) {
+            workers.execute(() -> drain(key, queue));
+        }
+    }
+
+    private void handle(Update update) {
+        try {
+            bot.onUpdateReceived(update);
+        } catch (RuntimeException e) {
+            // A failing update is still acknowledged, otherwise it would be retried forever
+            System.err.println("Update " + update.getUpdateId() + " failed: " + e.getMessage());
+        }
+    }
+
+    // Recorded as handled before leaving unfinished, so the poller always sees it in one or the other
+    private void finish(Update update, boolean acknowledged) {
+        int id = update.getUpdateId();
+        if (!acknowledged) {
+            synchronized (this) {
+                int attempts = failures.merge(id, 1, Integer::sum);
+                if (attempts < MAX_ATTEMPTS) {
+                    // Back of its chat's queue; the worker that failed picks the chat up again in resume
+                    enqueue(update);
+                    return;
+                }
+            }
+            System.err.println("Giving up on update " + id + " after " + MAX_ATTEMPTS + " failed attempts");
+            abandoned.increment();
+        } else {
+            handled.increment();
+        }
+        inbox.markProcessed(id);
+        synchronized (this) {
+            unfinished.remove(id);
+            failures.remove(id);
+        }
+    }
+
+    private void compactIfDue() {
+        try {
+            long size = inbox.size();
+            boolean idle;
+            synchronized (this) {
+                idle = unfinished.isEmpty();
+            }
+            if ((idle && size > 0) || size > COMPACT_BYTES) {
+                compact();
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to check update inbox size: " + e.getMessage());
+        }
+    }
+
+    private void compact() {
+        List<Update> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(unfinished.values());
+        }
+        try {
+            inbox.compact(snapshot);
+        } catch (IOException e) {
+            // The old inbox is still in place; it just stays larger until the next try
+            System.err.println("Failed to compact update inbox: " + e.getMessage());
+        }
+    }
+
+    // Updates from the same chat (or user, for inline queries) must keep their order
+    private static long chatKey(Update update) {
+        if (update.hasMessage()) {
+            return update.getMessage().getChatId();
+        }
+        if (update.hasEditedMessage()) {
+            return update.getEditedMessage().getChatId();
+        }
+        if (update.hasCallbackQuery()) {
+            return update.getCallbackQuery().getFrom().getId();
+        }
+        if (update.hasInlineQuery()) {
+            return update.getInlineQuery().getFrom().getId();
+        }
+        return 0;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}